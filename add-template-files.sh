@@ -9,4 +9,8 @@ git config core.sparseCheckout true
 echo "docs/topics/readme" >> .git/info/sparse-checkout
 git pull origin master
 echo Copying readme files to $1
-mv docs/topics $1
+mkdir -p "$1"
+cp -R docs/topics/. "$1"
+# Index the readme resources, so missing ones are known without looking them up in the classpath
+cd "$1"
+find readme -type f ! -name index.txt | sort > readme/index.txt
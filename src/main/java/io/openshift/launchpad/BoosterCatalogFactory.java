@@ -7,18 +7,38 @@
 
 package io.openshift.launchpad;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Dependent;
 import javax.enterprise.event.Observes;
+import javax.enterprise.inject.Disposes;
 import javax.enterprise.inject.Produces;
-import javax.inject.Singleton;
 
 import org.jboss.forge.addon.ui.context.UIContext;
 import org.jboss.forge.furnace.container.cdi.events.Local;
@@ -26,6 +46,7 @@ import org.jboss.forge.furnace.event.PostStartup;
 
 import io.openshift.booster.catalog.BoosterCatalog;
 import io.openshift.booster.catalog.BoosterCatalogService;
+import io.openshift.launchpad.metrics.Metrics;
 
 /**
  * Factory class for {@link BoosterCatalogService} objects
@@ -38,39 +59,175 @@ public class BoosterCatalogFactory
    public static final String CATALOG_GIT_REPOSITORY_PROPERTY_NAME = "LAUNCHPAD_BACKEND_CATALOG_GIT_REPOSITORY";
    public static final String CATALOG_GIT_REF_PROPERTY_NAME = "LAUNCHPAD_BACKEND_CATALOG_GIT_REF";
    public static final String LABEL_FILTERS_PROPERTY_NAME = "LAUNCHPAD_BACKEND_LABEL_FILTERS";
+   public static final String CATALOG_CACHE_MAX_SIZE_PROPERTY_NAME = "LAUNCHPAD_BACKEND_CATALOG_CACHE_MAX_SIZE";
+   public static final String CATALOG_CACHE_MAX_IDLE_PROPERTY_NAME = "LAUNCHPAD_BACKEND_CATALOG_CACHE_MAX_IDLE_MINUTES";
+   public static final String CATALOG_REFRESH_INTERVAL_PROPERTY_NAME = "LAUNCHPAD_BACKEND_CATALOG_REFRESH_INTERVAL_MINUTES";
+   public static final String CATALOG_SNAPSHOT_DIR_PROPERTY_NAME = "LAUNCHPAD_BACKEND_CATALOG_SNAPSHOT_DIR";
+   /**
+    * A local directory, Git repository or archive used instead of {@link #CATALOG_GIT_REPOSITORY_PROPERTY_NAME}
+    */
+   public static final String CATALOG_LOCAL_SOURCE_PROPERTY_NAME = "LAUNCHPAD_BACKEND_CATALOG_LOCAL_SOURCE";
 
    private static final String DEFAULT_GIT_REPOSITORY_URL = "https://github.com/openshiftio/booster-catalog.git";
    private static final String DEFAULT_GIT_REF = "next";
+   private static final String OPENSHIFT_ONLINE_FREE_GIT_REF = "openshift-online-free";
+   private static final String DEFAULT_CACHE_MAX_SIZE = "8";
+   private static final String DEFAULT_CACHE_MAX_IDLE_MINUTES = "60";
+   /**
+    * Refreshed and evicted catalogs are only released after this delay, so wizards started with them can finish
+    */
+   private static final long RELEASE_DELAY_MINUTES = 30;
+   /**
+    * The metrics tag shared by all the catalogs that are not configured
+    */
+   private static final String OTHER_CATALOGS_TAG = "other";
+
+   private static final Logger log = Logger.getLogger(BoosterCatalogFactory.class.getName());
 
-   private BoosterCatalog defaultBoosterCatalog;
+   private volatile CatalogServiceKey defaultCatalogKey;
 
-   private Map<CatalogServiceKey, BoosterCatalogService> cache = new ConcurrentHashMap<>();
+   /**
+    * The default catalogs are never evicted from the cache
+    */
+   private volatile Set<CatalogServiceKey> pinnedKeys = Collections.emptySet();
+
+   private final BoundedCache<CatalogServiceKey, CompletableFuture<IndexedCatalog>> cache = new BoundedCache<>(
+            Integer.parseInt(getEnvVarOrSysProp(CATALOG_CACHE_MAX_SIZE_PROPERTY_NAME, DEFAULT_CACHE_MAX_SIZE)),
+            TimeUnit.MINUTES.toMillis(Long.parseLong(
+                     getEnvVarOrSysProp(CATALOG_CACHE_MAX_IDLE_PROPERTY_NAME, DEFAULT_CACHE_MAX_IDLE_MINUTES))),
+            key -> pinnedKeys.contains(key),
+            this::evicted);
 
    @Resource
    private ManagedExecutorService async;
 
+   private ScheduledExecutorService scheduler;
+
+   /**
+    * The catalogs handed out by {@link #getDefaultCatalog()}, by identity
+    */
+   private final Map<BoosterCatalog, IndexedCatalog> producedCatalogs = new IdentityHashMap<>();
+
+   /**
+    * The label filters of the backend, whose query lookups are built when a catalog is indexed
+    */
+   private final Set<LabelSet> configuredLabelFilters = getConfiguredLabelFilters();
+
+   private final CatalogSnapshotStore snapshotStore = new CatalogSnapshotStore(
+            getPathEnvVarOrSysProp(CATALOG_SNAPSHOT_DIR_PROPERTY_NAME));
+
+   private final LocalCatalogSource localSource = createLocalSource();
+
    void init(@Observes @Local PostStartup startup)
    {
       // This will automatically call the reset method when constructed
    }
 
+   /**
+    * Clears the cache and starts indexing all the configured catalogs in parallel. This method does not wait for the
+    * indexing to finish: use {@link #isCatalogReady(String, String)} or {@link #getCatalogAsync(String, String)} to
+    * know when a given catalog is available.
+    */
    @PostConstruct
    public void reset()
    {
       cache.clear();
-      defaultBoosterCatalog = getCatalog(
-               getEnvVarOrSysProp(CATALOG_GIT_REPOSITORY_PROPERTY_NAME, DEFAULT_GIT_REPOSITORY_URL),
+      String catalogUrl = getEnvVarOrSysProp(CATALOG_GIT_REPOSITORY_PROPERTY_NAME, DEFAULT_GIT_REPOSITORY_URL);
+      Set<CatalogServiceKey> keys = new HashSet<>();
+      defaultCatalogKey = new CatalogServiceKey(catalogUrl,
                getEnvVarOrSysProp(CATALOG_GIT_REF_PROPERTY_NAME, DEFAULT_GIT_REF));
+      keys.add(defaultCatalogKey);
       // Index the openshift-online-free catalog
       if (!Boolean.getBoolean("LAUNCHPAD_SKIP_OOF_CATALOG_INDEX"))
       {
-         getCatalog(getEnvVarOrSysProp(CATALOG_GIT_REPOSITORY_PROPERTY_NAME, DEFAULT_GIT_REPOSITORY_URL),
-                  "openshift-online-free");
+         keys.add(new CatalogServiceKey(catalogUrl, OPENSHIFT_ONLINE_FREE_GIT_REF));
+      }
+      pinnedKeys = Collections.unmodifiableSet(keys);
+      keys.forEach(this::getCatalogAsync);
+      if (scheduler == null)
+      {
+         registerMetrics();
+         scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "booster-catalog-scheduler");
+            thread.setDaemon(true);
+            return thread;
+         });
+         long refreshInterval = Long.parseLong(getEnvVarOrSysProp(CATALOG_REFRESH_INTERVAL_PROPERTY_NAME, "0"));
+         if (refreshInterval > 0)
+         {
+            scheduler.scheduleWithFixedDelay(this::refresh, refreshInterval, refreshInterval, TimeUnit.MINUTES);
+         }
+         long maxIdleMillis = cache.getMaxIdleMillis();
+         if (maxIdleMillis > 0)
+         {
+            // Otherwise idle catalogs are only released when another catalog is added
+            cache.evictPeriodically(scheduler, Math.max(TimeUnit.MINUTES.toMillis(1), maxIdleMillis / 2));
+         }
+      }
+   }
+
+   @PreDestroy
+   void destroy()
+   {
+      if (scheduler != null)
+      {
+         scheduler.shutdownNow();
+         scheduler = null;
+      }
+      snapshotStore.close();
+      if (localSource != null)
+      {
+         localSource.close();
+      }
+   }
+
+   /**
+    * Re-indexes the cached catalogs whose ref moved to a new commit. The new index is built aside and atomically
+    * swapped in, so callers keep being served by the previous catalog until the new one is ready.
+    */
+   public void refresh()
+   {
+      cache.forEach((key, future) -> refresh(key, future));
+   }
+
+   private void refresh(CatalogServiceKey key, CompletableFuture<IndexedCatalog> future)
+   {
+      if (!future.isDone() || future.isCompletedExceptionally())
+      {
+         return;
+      }
+      IndexedCatalog current = future.join();
+      try
+      {
+         String commitId = isLocal(key) ? localSource.resolve(key.getCatalogRef()).getCommitId()
+                  : GitRefResolver.resolveCommitId(key.getCatalogUrl(), key.getCatalogRef());
+         if (commitId == null || commitId.equals(current.getCommitId()))
+         {
+            return;
+         }
+         IndexedCatalog refreshed = fetchAndIndex(key);
+         if (cache.replace(key, future, CompletableFuture.completedFuture(refreshed)))
+         {
+            releaseLater(current);
+         }
+         else
+         {
+            refreshed.release();
+         }
+      }
+      catch (RuntimeException e)
+      {
+         log.log(Level.WARNING, "Error while refreshing catalog " + key.getCatalogUrl() + "#" + key.getCatalogRef()
+                  + ", keeping the current one", e);
       }
    }
 
+   /**
+    * @return the label filters for the given context. Parsed filter strings are shared, so this is cheap to call
+    *         repeatedly
+    */
    @SuppressWarnings("unchecked")
-   public String[] getFilterLabels(UIContext context)
+   public LabelSet getFilterLabels(UIContext context)
    {
       Map<Object, Object> attributeMap = context.getAttributeMap();
       List<String> labels = (List<String>) attributeMap.get(LABEL_FILTERS_PROPERTY_NAME);
@@ -81,26 +238,49 @@ public class BoosterCatalogFactory
          {
             // all is a special case which means that we don't want to apply
             // any filters.
-            return new String[0];
+            return LabelSet.EMPTY;
          }
-         return filters.split(",");
+         return LabelSet.parse(filters);
       }
       else
       {
-         return new String[0];
+         return LabelSet.EMPTY;
       }
    }
 
+   /**
+    * The returned catalog is kept in the context, so a wizard sees the same catalog snapshot even if it is refreshed
+    * meanwhile
+    */
    public BoosterCatalog getCatalog(UIContext context)
+   {
+      return getIndexedCatalog(context).getCatalog();
+   }
+
+   /**
+    * @return the query index of the catalog returned by {@link #getCatalog(UIContext)}
+    */
+   public CatalogQueryIndex getCatalogIndex(UIContext context)
+   {
+      return getIndexedCatalog(context).getQueryIndex();
+   }
+
+   private IndexedCatalog getIndexedCatalog(UIContext context)
    {
       Map<Object, Object> attributeMap = context.getAttributeMap();
       String catalogUrl = (String) attributeMap.get(CATALOG_GIT_REPOSITORY_PROPERTY_NAME);
       String catalogRef = (String) attributeMap.get(CATALOG_GIT_REF_PROPERTY_NAME);
+      CatalogServiceKey key;
       if (catalogUrl == null && catalogRef == null)
       {
-         return getDefaultCatalog();
+         key = defaultCatalogKey;
       }
-      return getCatalog(catalogUrl, catalogRef);
+      else
+      {
+         key = new CatalogServiceKey(Objects.toString(catalogUrl, DEFAULT_GIT_REPOSITORY_URL),
+                  Objects.toString(catalogRef, DEFAULT_GIT_REF));
+      }
+      return (IndexedCatalog) attributeMap.computeIfAbsent(key, k -> await(load(key)));
    }
 
    /**
@@ -110,25 +290,312 @@ public class BoosterCatalogFactory
     */
    public BoosterCatalog getCatalog(String catalogUrl, String catalogRef)
    {
-      return cache.computeIfAbsent(
-               new CatalogServiceKey(Objects.toString(catalogUrl, DEFAULT_GIT_REPOSITORY_URL),
-                        Objects.toString(catalogRef, DEFAULT_GIT_REF)),
-               key -> {
-                  BoosterCatalogService service = new BoosterCatalogService.Builder()
-                           .catalogRepository(key.getCatalogUrl())
-                           .catalogRef(key.getCatalogRef())
-                           .executor(async)
-                           .build();
-                  service.index();
-                  return service;
-               });
+      return await(getCatalogAsync(catalogUrl, catalogRef));
+   }
+
+   /**
+    * @param catalogUrl the URL to use. Assumes {@link #DEFAULT_GIT_REPOSITORY_URL} if <code>null</code>
+    * @param catalogRef the Git ref to use. Assumes {@link #DEFAULT_GIT_REF} if <code>null</code>
+    * @return a {@link CompletableFuture} completed when the catalog for the given URL/ref tuple is indexed
+    */
+   public CompletableFuture<BoosterCatalog> getCatalogAsync(String catalogUrl, String catalogRef)
+   {
+      return getCatalogAsync(new CatalogServiceKey(Objects.toString(catalogUrl, DEFAULT_GIT_REPOSITORY_URL),
+               Objects.toString(catalogRef, DEFAULT_GIT_REF)));
+   }
+
+   /**
+    * @return <code>true</code> if the catalog for the given URL/ref tuple was successfully indexed. Does not trigger
+    *         the indexing of the catalog
+    */
+   public boolean isCatalogReady(String catalogUrl, String catalogRef)
+   {
+      CompletableFuture<IndexedCatalog> future = cache.getIfPresent(new CatalogServiceKey(
+               Objects.toString(catalogUrl, DEFAULT_GIT_REPOSITORY_URL),
+               Objects.toString(catalogRef, DEFAULT_GIT_REF)));
+      return future != null && future.isDone() && !future.isCompletedExceptionally();
+   }
+
+   /**
+    * @return <code>true</code> if the default catalog was successfully indexed
+    */
+   public boolean isReady()
+   {
+      CatalogServiceKey key = defaultCatalogKey;
+      return key != null && isCatalogReady(key.getCatalogUrl(), key.getCatalogRef());
+   }
+
+   public CompletableFuture<BoosterCatalog> getDefaultCatalogAsync()
+   {
+      return getCatalogAsync(defaultCatalogKey);
+   }
+
+   /**
+    * @return the number of catalog lookups served from the cache
+    */
+   public long getCacheHitCount()
+   {
+      return cache.getHitCount();
+   }
+
+   /**
+    * @return the number of catalog lookups that required a new catalog to be indexed
+    */
+   public long getCacheMissCount()
+   {
+      return cache.getMissCount();
+   }
+
+   /**
+    * @return the number of catalogs evicted from the cache
+    */
+   public long getCacheEvictionCount()
+   {
+      return cache.getEvictionCount();
+   }
+
+   /**
+    * @return the number of catalogs currently in the cache
+    */
+   public int getCacheSize()
+   {
+      return cache.size();
    }
 
+   /**
+    * Dependent, so each bean gets the default catalog of the time it is created instead of the first one ever
+    * indexed. A produced catalog is not deleted when it is refreshed or evicted until its bean is destroyed
+    */
    @Produces
-   @Singleton
+   @Dependent
    public BoosterCatalog getDefaultCatalog()
    {
-      return defaultBoosterCatalog;
+      IndexedCatalog catalog = await(load(defaultCatalogKey));
+      synchronized (producedCatalogs)
+      {
+         catalog.retain();
+         producedCatalogs.put(catalog.getCatalog(), catalog);
+      }
+      return catalog.getCatalog();
+   }
+
+   void disposeDefaultCatalog(@Disposes BoosterCatalog catalog)
+   {
+      synchronized (producedCatalogs)
+      {
+         IndexedCatalog indexed = producedCatalogs.get(catalog);
+         if (indexed != null && indexed.unretain() == 0)
+         {
+            producedCatalogs.remove(catalog);
+         }
+      }
+   }
+
+   private CompletableFuture<BoosterCatalog> getCatalogAsync(CatalogServiceKey key)
+   {
+      return load(key).thenApply(IndexedCatalog::getCatalog);
+   }
+
+   /**
+    * Single-flight loading: concurrent callers for the same key share the same in-flight future, and the indexing runs
+    * in the executor without holding any lock. A failed indexing is removed from the cache so the next call retries it.
+    */
+   private CompletableFuture<IndexedCatalog> load(CatalogServiceKey key)
+   {
+      CompletableFuture<IndexedCatalog> future = cache.get(key);
+      if (future != null)
+      {
+         return future;
+      }
+      CompletableFuture<IndexedCatalog> newFuture = new CompletableFuture<>();
+      future = cache.putIfAbsent(key, newFuture);
+      if (future != null)
+      {
+         return future;
+      }
+      try
+      {
+         executor().execute(() -> {
+            CatalogSnapshotStore.Snapshot snapshot = null;
+            try
+            {
+               snapshot = findSnapshot(key);
+               newFuture.complete(snapshot != null ? index(key, snapshot.getRepositoryUrl(), snapshot.getCommitId())
+                        : fetchAndIndex(key));
+            }
+            catch (Throwable t)
+            {
+               cache.invalidate(key, newFuture);
+               newFuture.completeExceptionally(t);
+               return;
+            }
+            ScheduledExecutorService s = scheduler;
+            if (snapshot != null && s != null)
+            {
+               // The catalog was indexed from a possibly stale snapshot, re-validate it against the remote repository.
+               // A catalog just fetched from the remote repository is up to date
+               s.execute(() -> refresh(key, newFuture));
+            }
+         });
+      }
+      catch (RejectedExecutionException e)
+      {
+         cache.invalidate(key, newFuture);
+         newFuture.completeExceptionally(e);
+      }
+      return newFuture;
+   }
+
+   /**
+    * @return the persisted snapshot the catalog can be indexed from without reaching the remote repository,
+    *         <code>null</code> if there is none
+    */
+   private CatalogSnapshotStore.Snapshot findSnapshot(CatalogServiceKey key)
+   {
+      return isLocal(key) || !snapshotStore.isPersistent() ? null
+               : snapshotStore.find(key.getCatalogUrl(), key.getCatalogRef());
+   }
+
+   /**
+    * Indexes the catalog from its source: the local source if configured, otherwise the mirror of the remote
+    * repository, updated first. All the refs of a repository share the same mirror
+    */
+   private IndexedCatalog fetchAndIndex(CatalogServiceKey key)
+   {
+      CatalogSnapshotStore.Snapshot snapshot;
+      if (isLocal(key))
+      {
+         snapshot = localSource.resolve(key.getCatalogRef());
+      }
+      else
+      {
+         snapshot = snapshotStore.save(key.getCatalogUrl(), key.getCatalogRef());
+      }
+      return index(key, snapshot.getRepositoryUrl(), snapshot.getCommitId());
+   }
+
+   /**
+    * @return <code>true</code> if the catalog is served by the local source instead of the configured repository
+    */
+   private boolean isLocal(CatalogServiceKey key)
+   {
+      CatalogServiceKey defaultKey = defaultCatalogKey;
+      return localSource != null && defaultKey != null && defaultKey.getCatalogUrl().equals(key.getCatalogUrl());
+   }
+
+   private IndexedCatalog index(CatalogServiceKey key, String repositoryUrl, String commitId)
+   {
+      log.log(Level.INFO, "Indexing catalog {0}#{1} ({2}) from {3}",
+               new Object[] { key.getCatalogUrl(), key.getCatalogRef(), commitId, repositoryUrl });
+      String catalogTag = metricsTag(key);
+      long start = System.nanoTime();
+      Path rootDir = null;
+      try
+      {
+         rootDir = Files.createTempDirectory("booster-catalog");
+         BoosterCatalogService service = new BoosterCatalogService.Builder()
+                  .catalogRepository(repositoryUrl)
+                  .catalogRef(key.getCatalogRef())
+                  .rootDir(rootDir)
+                  .executor(async)
+                  .build();
+         service.index();
+         Metrics.timer("catalog.index", "catalog", catalogTag).recordSince(start);
+         if (!OTHER_CATALOGS_TAG.equals(catalogTag))
+         {
+            Metrics.gauge("catalog.size.bytes", () -> {
+               CompletableFuture<IndexedCatalog> future = cache.getIfPresent(key);
+               return future != null && future.isDone() && !future.isCompletedExceptionally()
+                        ? future.join().getSize() : 0;
+            }, "catalog", catalogTag);
+         }
+         return new IndexedCatalog(service, rootDir, commitId, configuredLabelFilters);
+      }
+      catch (IOException e)
+      {
+         log.log(Level.SEVERE, "Error while indexing catalog " + key.getCatalogUrl() + "#" + key.getCatalogRef(), e);
+         throw new UncheckedIOException(e);
+      }
+      catch (RuntimeException e)
+      {
+         log.log(Level.SEVERE, "Error while indexing catalog " + key.getCatalogUrl() + "#" + key.getCatalogRef(), e);
+         IndexedCatalog.deleteQuietly(rootDir);
+         throw e;
+      }
+   }
+
+   private void registerMetrics()
+   {
+      Metrics.gauge("catalog.cache.hits", this::getCacheHitCount);
+      Metrics.gauge("catalog.cache.misses", this::getCacheMissCount);
+      Metrics.gauge("catalog.cache.evictions", this::getCacheEvictionCount);
+      Metrics.gauge("catalog.cache.size", this::getCacheSize);
+      Metrics.gauge("catalog.cache.hitRatio", () -> {
+         long hits = getCacheHitCount();
+         long total = hits + getCacheMissCount();
+         return total == 0 ? 0 : (double) hits / total;
+      });
+   }
+
+   private void evicted(CatalogServiceKey key, CompletableFuture<IndexedCatalog> future)
+   {
+      log.log(Level.INFO, "Evicting catalog {0}#{1}", new Object[] { key.getCatalogUrl(), key.getCatalogRef() });
+      String catalogTag = metricsTag(key);
+      if (!OTHER_CATALOGS_TAG.equals(catalogTag))
+      {
+         Metrics.remove("catalog.index", "catalog", catalogTag);
+         Metrics.remove("catalog.size.bytes", "catalog", catalogTag);
+      }
+      // Wizards may still hold the evicted catalog in their context
+      future.thenAccept(this::releaseLater);
+   }
+
+   /**
+    * @return the tag of the metrics of the given catalog. Catalog URLs and refs are client-provided, so only the
+    *         configured catalogs have their own metrics
+    */
+   private String metricsTag(CatalogServiceKey key)
+   {
+      return pinnedKeys.contains(key) ? key.getCatalogUrl() + "#" + key.getCatalogRef() : OTHER_CATALOGS_TAG;
+   }
+
+   private void releaseLater(IndexedCatalog catalog)
+   {
+      ScheduledExecutorService s = scheduler;
+      try
+      {
+         if (s != null)
+         {
+            s.schedule(catalog::release, RELEASE_DELAY_MINUTES, TimeUnit.MINUTES);
+            return;
+         }
+      }
+      catch (RejectedExecutionException e)
+      {
+         // Shutting down
+      }
+      catalog.release();
+   }
+
+   private Executor executor()
+   {
+      return async != null ? async : ForkJoinPool.commonPool();
+   }
+
+   private static <T> T await(CompletableFuture<T> future)
+   {
+      try
+      {
+         return future.join();
+      }
+      catch (CompletionException e)
+      {
+         if (e.getCause() instanceof RuntimeException)
+         {
+            throw (RuntimeException) e.getCause();
+         }
+         throw e;
+      }
    }
 
    private static String getEnvVarOrSysProp(String name, String defaultValue)
@@ -136,6 +603,28 @@ public class BoosterCatalogFactory
       return System.getProperty(name, System.getenv().getOrDefault(name, defaultValue));
    }
 
+   private static Set<LabelSet> getConfiguredLabelFilters()
+   {
+      String filters = getEnvVarOrSysProp(LABEL_FILTERS_PROPERTY_NAME, null);
+      if (filters == null || filters.equals("all"))
+      {
+         return Collections.emptySet();
+      }
+      return Collections.singleton(LabelSet.parse(filters));
+   }
+
+   private static LocalCatalogSource createLocalSource()
+   {
+      Path source = getPathEnvVarOrSysProp(CATALOG_LOCAL_SOURCE_PROPERTY_NAME);
+      return source == null ? null : new LocalCatalogSource(source);
+   }
+
+   private static Path getPathEnvVarOrSysProp(String name)
+   {
+      String value = getEnvVarOrSysProp(name, null);
+      return value == null ? null : Paths.get(value);
+   }
+
    private class CatalogServiceKey
    {
       private final String catalogUrl;
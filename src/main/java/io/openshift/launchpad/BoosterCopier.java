@@ -0,0 +1,203 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.inject.Singleton;
+
+import io.openshift.booster.catalog.Booster;
+import io.openshift.booster.catalog.BoosterCatalog;
+
+/**
+ * Copies the contents of a booster to a new project. The booster tree is walked once, then its files are copied in
+ * parallel with {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}.
+ * <p>
+ * When <code>LAUNCHPAD_BOOSTER_COPY_MODE</code> is <code>link</code>, the files that are never changed after the copy
+ * are hard-linked to the catalog instead of copied. The files rewritten by the wizard (pom.xml, package.json and
+ * README.adoc) are always copied, so the catalog is never modified through a link.
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+@Singleton
+public class BoosterCopier
+{
+   private static final String LAUNCHPAD_BOOSTER_COPY_MODE = "LAUNCHPAD_BOOSTER_COPY_MODE";
+   private static final String LAUNCHPAD_BOOSTER_COPY_THREADS = "LAUNCHPAD_BOOSTER_COPY_THREADS";
+
+   /**
+    * The files changed in place after the copy
+    */
+   private static final Set<String> REWRITTEN_FILES = Collections
+            .unmodifiableSet(new HashSet<>(Arrays.asList("pom.xml", "package.json", "README.adoc")));
+
+   private static final Logger log = Logger.getLogger(BoosterCopier.class.getName());
+
+   private final boolean link = "link".equalsIgnoreCase(getEnvVarOrSysProp(LAUNCHPAD_BOOSTER_COPY_MODE, "copy"));
+
+   private final int threads = Integer.parseInt(getEnvVarOrSysProp(LAUNCHPAD_BOOSTER_COPY_THREADS,
+            String.valueOf(java.lang.Runtime.getRuntime().availableProcessors())));
+
+   @Resource
+   private ManagedExecutorService async;
+
+   /**
+    * Copies the contents of the given booster to the given directory, falling back to
+    * {@link BoosterCatalog#copy(Booster, Path)} if its contents are not available locally
+    *
+    * @return the project directory
+    */
+   public Path copy(BoosterCatalog catalog, Booster booster, Path projectDirectory) throws IOException
+   {
+      Path contentPath = booster.getContentPath();
+      if (contentPath == null || !Files.isDirectory(contentPath))
+      {
+         return catalog.copy(booster, projectDirectory);
+      }
+      copyTree(contentPath, projectDirectory, link, threads, async != null ? async : ForkJoinPool.commonPool());
+      return projectDirectory;
+   }
+
+   /**
+    * Copies the given tree, except its .git directories
+    *
+    * @param link if the files that are not rewritten later should be hard-linked instead of copied
+    * @param threads the maximum number of files copied at the same time
+    */
+   static void copyTree(Path source, Path target, boolean link, int threads, Executor executor) throws IOException
+   {
+      List<Path> files = new ArrayList<>();
+      Files.walkFileTree(source, new SimpleFileVisitor<Path>()
+      {
+         @Override
+         public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException
+         {
+            if (dir.getFileName() != null && ".git".equals(dir.getFileName().toString()))
+            {
+               return FileVisitResult.SKIP_SUBTREE;
+            }
+            Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+            return FileVisitResult.CONTINUE;
+         }
+
+         @Override
+         public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException
+         {
+            files.add(file);
+            return FileVisitResult.CONTINUE;
+         }
+      });
+      // Each task copies every n-th file, so small and large files are spread evenly
+      int tasks = Math.max(1, Math.min(threads, files.size()));
+      CompletableFuture<?>[] copies = new CompletableFuture<?>[tasks];
+      for (int task = 0; task < tasks; task++)
+      {
+         int first = task;
+         copies[task] = CompletableFuture.runAsync(() -> {
+            for (int i = first; i < files.size(); i += tasks)
+            {
+               Path file = files.get(i);
+               try
+               {
+                  copyFile(file, target.resolve(source.relativize(file).toString()), link);
+               }
+               catch (IOException e)
+               {
+                  throw new UncheckedIOException(e);
+               }
+            }
+         }, executor);
+      }
+      try
+      {
+         CompletableFuture.allOf(copies).join();
+      }
+      catch (CompletionException e)
+      {
+         if (e.getCause() instanceof UncheckedIOException)
+         {
+            throw ((UncheckedIOException) e.getCause()).getCause();
+         }
+         throw e;
+      }
+   }
+
+   private static void copyFile(Path source, Path target, boolean link) throws IOException
+   {
+      // Never write through a link left by a previous copy
+      Files.deleteIfExists(target);
+      if (link && !REWRITTEN_FILES.contains(source.getFileName().toString()))
+      {
+         try
+         {
+            Files.createLink(target, source);
+            return;
+         }
+         catch (IOException | UnsupportedOperationException e)
+         {
+            // Eg. another file system, copy it instead
+            log.log(Level.FINE, "Cannot link " + target + " to " + source, e);
+         }
+      }
+      if (!Files.isRegularFile(source, LinkOption.NOFOLLOW_LINKS))
+      {
+         Files.copy(source, target);
+         return;
+      }
+      try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+               FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE))
+      {
+         long size = in.size();
+         long position = 0;
+         while (position < size)
+         {
+            position += in.transferTo(position, size - position, out);
+         }
+      }
+      // Keep scripts like mvnw executable
+      if (Files.isExecutable(source))
+      {
+         try
+         {
+            Files.setPosixFilePermissions(target, Files.getPosixFilePermissions(source));
+         }
+         catch (UnsupportedOperationException e)
+         {
+            target.toFile().setExecutable(true);
+         }
+      }
+   }
+
+   private static String getEnvVarOrSysProp(String name, String defaultValue)
+   {
+      return System.getProperty(name, System.getenv().getOrDefault(name, defaultValue));
+   }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A concurrent cache bounded by size and idle time, evicting the least recently used entries first. Pinned entries are
+ * never evicted. Eviction runs when an entry is added and, if scheduled with
+ * {@link #evictPeriodically(ScheduledExecutorService, long)}, periodically so idle entries are released even if
+ * nothing is added.
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+class BoundedCache<K, V>
+{
+   private static final Logger log = Logger.getLogger(BoundedCache.class.getName());
+
+   private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+   private final int maxSize;
+   private final long maxIdleMillis;
+   private final Predicate<K> pinned;
+   private final BiConsumer<K, V> evictionListener;
+
+   private final AtomicLong hits = new AtomicLong();
+   private final AtomicLong misses = new AtomicLong();
+   private final AtomicLong evictions = new AtomicLong();
+
+   /**
+    * @param maxSize the maximum number of unpinned entries
+    * @param maxIdleMillis the time an unpinned entry can stay without being accessed. Zero or less means no limit
+    * @param pinned returns <code>true</code> for the keys that should never be evicted
+    * @param evictionListener called for every evicted entry
+    */
+   BoundedCache(int maxSize, long maxIdleMillis, Predicate<K> pinned, BiConsumer<K, V> evictionListener)
+   {
+      this.maxSize = maxSize;
+      this.maxIdleMillis = maxIdleMillis;
+      this.pinned = pinned;
+      this.evictionListener = evictionListener;
+   }
+
+   /**
+    * @return the value for the given key, <code>null</code> if not present
+    */
+   V get(K key)
+   {
+      Entry<V> entry = entries.get(key);
+      if (entry == null)
+      {
+         return null;
+      }
+      hits.incrementAndGet();
+      return entry.touch();
+   }
+
+   /**
+    * Associates the value with the given key if no value is present, evicting entries if needed
+    * 
+    * @return the current value, <code>null</code> if the given value was added
+    */
+   V putIfAbsent(K key, V value)
+   {
+      Entry<V> existing = entries.putIfAbsent(key, new Entry<>(value));
+      if (existing != null)
+      {
+         hits.incrementAndGet();
+         return existing.touch();
+      }
+      misses.incrementAndGet();
+      evict();
+      return null;
+   }
+
+   /**
+    * Removes the entry for the given key only if it is mapped to the given value, without notifying the eviction
+    * listener
+    */
+   boolean invalidate(K key, V value)
+   {
+      Entry<V> entry = entries.get(key);
+      return entry != null && entry.value == value && entries.remove(key, entry);
+   }
+
+   /**
+    * Atomically replaces the value for the given key only if it is currently mapped to the given old value, keeping its
+    * access time
+    */
+   boolean replace(K key, V oldValue, V newValue)
+   {
+      Entry<V> entry = entries.get(key);
+      if (entry == null || entry.value != oldValue)
+      {
+         return false;
+      }
+      Entry<V> newEntry = new Entry<>(newValue);
+      newEntry.lastAccess = entry.lastAccess;
+      return entries.replace(key, entry, newEntry);
+   }
+
+   /**
+    * Performs the given action for each entry, without updating their access time
+    */
+   void forEach(BiConsumer<K, V> action)
+   {
+      entries.forEach((key, entry) -> action.accept(key, entry.value));
+   }
+
+   /**
+    * @return the value for the given key without loading it, <code>null</code> if not present
+    */
+   V getIfPresent(K key)
+   {
+      Entry<V> entry = entries.get(key);
+      return entry == null ? null : entry.value;
+   }
+
+   /**
+    * Evicts the idle entries and the least recently used ones until the size bound is honored
+    */
+   synchronized void evict()
+   {
+      long now = System.currentTimeMillis();
+      List<Map.Entry<K, Entry<V>>> candidates = new ArrayList<>();
+      int unpinned = 0;
+      for (Map.Entry<K, Entry<V>> e : entries.entrySet())
+      {
+         if (pinned.test(e.getKey()))
+         {
+            continue;
+         }
+         unpinned++;
+         if (maxIdleMillis > 0 && now - e.getValue().lastAccess > maxIdleMillis)
+         {
+            if (remove(e.getKey(), e.getValue()))
+            {
+               unpinned--;
+            }
+         }
+         else
+         {
+            candidates.add(e);
+         }
+      }
+      if (unpinned > maxSize)
+      {
+         candidates.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+         for (int i = 0; i < candidates.size() && unpinned > maxSize; i++)
+         {
+            Map.Entry<K, Entry<V>> e = candidates.get(i);
+            if (remove(e.getKey(), e.getValue()))
+            {
+               unpinned--;
+            }
+         }
+      }
+   }
+
+   /**
+    * Runs {@link #evict()} at the given interval in the given scheduler
+    */
+   ScheduledFuture<?> evictPeriodically(ScheduledExecutorService scheduler, long intervalMillis)
+   {
+      return scheduler.scheduleWithFixedDelay(() -> {
+         try
+         {
+            evict();
+         }
+         catch (RuntimeException e)
+         {
+            // Keep the periodic eviction running
+            log.log(Level.WARNING, "Error while evicting idle entries", e);
+         }
+      }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+   }
+
+   /**
+    * Evicts all entries, including the pinned ones
+    */
+   void clear()
+   {
+      for (Map.Entry<K, Entry<V>> e : entries.entrySet())
+      {
+         remove(e.getKey(), e.getValue());
+      }
+   }
+
+   /**
+    * @return the time an unpinned entry can stay without being accessed, zero or less if there is no limit
+    */
+   long getMaxIdleMillis()
+   {
+      return maxIdleMillis;
+   }
+
+   int size()
+   {
+      return entries.size();
+   }
+
+   long getHitCount()
+   {
+      return hits.get();
+   }
+
+   long getMissCount()
+   {
+      return misses.get();
+   }
+
+   long getEvictionCount()
+   {
+      return evictions.get();
+   }
+
+   private boolean remove(K key, Entry<V> entry)
+   {
+      if (entries.remove(key, entry))
+      {
+         evictions.incrementAndGet();
+         evictionListener.accept(key, entry.value);
+         return true;
+      }
+      return false;
+   }
+
+   private static class Entry<V>
+   {
+      private final V value;
+      private volatile long lastAccess = System.currentTimeMillis();
+
+      Entry(V value)
+      {
+         this.value = value;
+      }
+
+      V touch()
+      {
+         lastAccess = System.currentTimeMillis();
+         return value;
+      }
+   }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.openshift.booster.catalog.Booster;
+import io.openshift.booster.catalog.BoosterCatalog;
+import io.openshift.booster.catalog.DeploymentType;
+import io.openshift.booster.catalog.Mission;
+import io.openshift.booster.catalog.Runtime;
+import io.openshift.booster.catalog.Version;
+
+/**
+ * Answers the queries made by the wizard steps against a catalog snapshot from lookup tables built when the snapshot is
+ * indexed, so answering a query does not evaluate it against the catalog nor allocate.
+ * <p>
+ * The tables of the unfiltered catalog and of the configured label filters are built with the index. The tables of
+ * another label set are built the first time it is used and kept for the lifetime of the snapshot if it selects any
+ * booster: as a booster must have all the filtered labels, there are no more of them than combinations of the labels
+ * found in the catalog.
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+public final class CatalogQueryIndex
+{
+   /**
+    * A <code>null</code> deployment type or mission does not filter the catalog
+    */
+   private static final List<DeploymentType> DEPLOYMENT_TYPES = deploymentTypes();
+
+   private final BoosterCatalog catalog;
+   private final Map<LabelSet, Lookups> lookups = new ConcurrentHashMap<>();
+
+   /**
+    * The boosters of each mission, runtime and version, which are not filtered by labels
+    */
+   private final Map<Mission, Map<Runtime, Map<Version, Optional<Booster>>>> boostersByVersion = new HashMap<>();
+
+   /**
+    * @param labelFilters the label filters to build the tables for besides the unfiltered catalog
+    */
+   CatalogQueryIndex(BoosterCatalog catalog, Collection<LabelSet> labelFilters)
+   {
+      this.catalog = catalog;
+      Lookups unfiltered = build(LabelSet.EMPTY);
+      lookups.put(LabelSet.EMPTY, unfiltered);
+      for (LabelSet labels : labelFilters)
+      {
+         lookups(labels);
+      }
+      unfiltered.versions.forEach((mission, runtimes) -> runtimes.forEach((runtime, versions) -> {
+         Map<Version, Optional<Booster>> boosters = new HashMap<>();
+         for (Version version : versions)
+         {
+            boosters.put(version, catalog.getBooster(mission, runtime, version));
+         }
+         boostersByVersion.computeIfAbsent(mission, m -> new HashMap<>()).put(runtime, boosters);
+      }));
+   }
+
+   /**
+    * @return the missions available for the given deployment type and labels
+    */
+   public Set<Mission> getMissions(DeploymentType deploymentType, LabelSet labels)
+   {
+      return lookups(labels).missions.getOrDefault(deploymentType, Collections.emptySet());
+   }
+
+   /**
+    * @return the runtimes available for the given deployment type, mission and labels
+    */
+   public Set<Runtime> getRuntimes(DeploymentType deploymentType, Mission mission, LabelSet labels)
+   {
+      return get(lookups(labels).runtimes.get(deploymentType), mission, Collections.emptySet());
+   }
+
+   /**
+    * @return the versions available for the given mission, runtime and labels
+    */
+   public Set<Version> getVersions(Mission mission, Runtime runtime, LabelSet labels)
+   {
+      return get(lookups(labels).versions.get(mission), runtime, Collections.emptySet());
+   }
+
+   /**
+    * @return the booster for the given mission, runtime and labels
+    */
+   public Optional<Booster> getBooster(Mission mission, Runtime runtime, LabelSet labels)
+   {
+      return get(lookups(labels).boosters.get(mission), runtime, Optional.empty());
+   }
+
+   /**
+    * @return the booster for the given mission, runtime and version
+    */
+   public Optional<Booster> getBooster(Mission mission, Runtime runtime, Version version)
+   {
+      return get(get(boostersByVersion.get(mission), runtime, null), version, Optional.empty());
+   }
+
+   private static List<DeploymentType> deploymentTypes()
+   {
+      List<DeploymentType> types = new ArrayList<>();
+      types.add(null);
+      types.addAll(Arrays.asList(DeploymentType.values()));
+      return Collections.unmodifiableList(types);
+   }
+
+   private static <K, V> V get(Map<K, V> map, K key, V defaultValue)
+   {
+      return map == null ? defaultValue : map.getOrDefault(key, defaultValue);
+   }
+
+   private Lookups lookups(LabelSet labels)
+   {
+      Lookups labelLookups = lookups.get(labels);
+      if (labelLookups == null)
+      {
+         labelLookups = build(labels);
+         if (!labelLookups.isEmpty())
+         {
+            Lookups existing = lookups.putIfAbsent(labels, labelLookups);
+            if (existing != null)
+            {
+               labelLookups = existing;
+            }
+         }
+      }
+      return labelLookups;
+   }
+
+   private Lookups build(LabelSet labels)
+   {
+      String[] filters = labels.array();
+      Lookups built = new Lookups();
+      for (DeploymentType deploymentType : DEPLOYMENT_TYPES)
+      {
+         Set<Mission> missions = Collections.unmodifiableSet(
+                  catalog.selector().deploymentType(deploymentType).labels(filters).getMissions());
+         built.missions.put(deploymentType, missions);
+         Map<Mission, Set<Runtime>> runtimes = new HashMap<>();
+         runtimes.put(null, Collections.unmodifiableSet(
+                  catalog.selector().deploymentType(deploymentType).labels(filters).getRuntimes()));
+         for (Mission mission : missions)
+         {
+            runtimes.put(mission, Collections.unmodifiableSet(
+                     catalog.selector().deploymentType(deploymentType).mission(mission).labels(filters).getRuntimes()));
+         }
+         built.runtimes.put(deploymentType, runtimes);
+      }
+      // The unfiltered deployment type selects the missions and runtimes of all boosters
+      built.runtimes.get(null).forEach((mission, runtimes) -> {
+         if (mission == null)
+         {
+            return;
+         }
+         Map<Runtime, Set<Version>> versions = new HashMap<>();
+         Map<Runtime, Optional<Booster>> boosters = new HashMap<>();
+         for (Runtime runtime : runtimes)
+         {
+            versions.put(runtime, Collections.unmodifiableSet(catalog.getVersions(mission, runtime, filters)));
+            boosters.put(runtime, catalog.getBooster(mission, runtime, filters));
+         }
+         built.versions.put(mission, versions);
+         built.boosters.put(mission, boosters);
+      });
+      return built;
+   }
+
+   /**
+    * The answers for a label set
+    */
+   private static final class Lookups
+   {
+      private final Map<DeploymentType, Set<Mission>> missions = new HashMap<>();
+      private final Map<DeploymentType, Map<Mission, Set<Runtime>>> runtimes = new HashMap<>();
+      private final Map<Mission, Map<Runtime, Set<Version>>> versions = new HashMap<>();
+      private final Map<Mission, Map<Runtime, Optional<Booster>>> boosters = new HashMap<>();
+
+      /**
+       * @return <code>true</code> if the label set selects no booster
+       */
+      boolean isEmpty()
+      {
+         return missions.get(null).isEmpty();
+      }
+   }
+}
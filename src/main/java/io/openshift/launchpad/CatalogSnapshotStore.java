@@ -0,0 +1,267 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.transport.RefSpec;
+
+/**
+ * Keeps a local bare mirror of each catalog repository, shared by all the refs indexed from it, so adding a ref only
+ * fetches the objects it does not share with the others. When a persistent directory is given, the mirrors survive
+ * restarts and catalogs can be indexed at startup without reaching the remote repository.
+ * <p>
+ * Only the Git objects are persisted, not the parsed catalog: a catalog indexed from a snapshot is still cloned from
+ * the mirror and its booster descriptors are parsed again, only the network round-trips are saved.
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+class CatalogSnapshotStore
+{
+   private static final Logger log = Logger.getLogger(CatalogSnapshotStore.class.getName());
+
+   private static final String SNAPSHOT_FILE = "snapshot.properties";
+   private static final String REPOSITORY_DIR = "repository.git";
+
+   private final boolean persistent;
+   private volatile Path rootDir;
+
+   /**
+    * One lock per mirror, so a slow clone or fetch of a repository does not block the others
+    */
+   private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+   /**
+    * @param rootDir the directory where mirrors are persisted. If <code>null</code>, a temporary directory is used and
+    *           the mirrors only live as long as this store
+    */
+   CatalogSnapshotStore(Path rootDir)
+   {
+      this.rootDir = rootDir;
+      this.persistent = rootDir != null;
+   }
+
+   /**
+    * @return <code>true</code> if the mirrors survive restarts, and may therefore be stale
+    */
+   boolean isPersistent()
+   {
+      return persistent;
+   }
+
+   /**
+    * @return the snapshot for the given URL/ref tuple, <code>null</code> if the ref was never fetched
+    */
+   Snapshot find(String catalogUrl, String catalogRef)
+   {
+      Path root = rootDir;
+      if (root == null)
+      {
+         return null;
+      }
+      synchronized (lock(catalogUrl))
+      {
+         return find(root.resolve(sha1(catalogUrl)), catalogUrl, catalogRef);
+      }
+   }
+
+   private Snapshot find(Path dir, String catalogUrl, String catalogRef)
+   {
+      Path snapshotFile = dir.resolve(SNAPSHOT_FILE);
+      Path repository = dir.resolve(REPOSITORY_DIR);
+      if (!Files.isRegularFile(snapshotFile) || !Files.isDirectory(repository))
+      {
+         return null;
+      }
+      Properties props = new Properties();
+      try (Reader reader = Files.newBufferedReader(snapshotFile, StandardCharsets.UTF_8))
+      {
+         props.load(reader);
+      }
+      catch (IOException e)
+      {
+         log.log(Level.WARNING, "Ignoring unreadable catalog snapshot " + snapshotFile, e);
+         return null;
+      }
+      if (!catalogUrl.equals(props.getProperty("url")))
+      {
+         return null;
+      }
+      try (Git git = Git.open(repository.toFile()))
+      {
+         ObjectId id = git.getRepository().resolve(catalogRef + "^{commit}");
+         return id == null ? null : new Snapshot(repository, id.getName());
+      }
+      catch (IOException e)
+      {
+         log.log(Level.WARNING, "Ignoring unreadable catalog snapshot " + repository, e);
+         return null;
+      }
+   }
+
+   /**
+    * Updates the mirror of the given repository from the remote repository, cloning it if needed
+    *
+    * @return the snapshot for the given URL/ref tuple
+    */
+   Snapshot save(String catalogUrl, String catalogRef)
+   {
+      synchronized (lock(catalogUrl))
+      {
+         return update(catalogUrl, catalogRef);
+      }
+   }
+
+   private Snapshot update(String catalogUrl, String catalogRef)
+   {
+      Path tmpDir = null;
+      try
+      {
+         Path root = createRootDir();
+         Path dir = root.resolve(sha1(catalogUrl));
+         Path repository = dir.resolve(REPOSITORY_DIR);
+         if (Files.isRegularFile(dir.resolve(SNAPSHOT_FILE)) && Files.isDirectory(repository))
+         {
+            try (Git git = Git.open(repository.toFile()))
+            {
+               git.fetch()
+                        .setRemote("origin")
+                        .setRefSpecs(new RefSpec("+refs/heads/*:refs/heads/*"),
+                                 new RefSpec("+refs/tags/*:refs/tags/*"))
+                        .setRemoveDeletedRefs(true)
+                        .call();
+            }
+         }
+         else
+         {
+            tmpDir = Files.createTempDirectory(root, "tmp-");
+            Git.cloneRepository()
+                     .setURI(catalogUrl)
+                     .setBare(true)
+                     .setDirectory(tmpDir.resolve(REPOSITORY_DIR).toFile())
+                     .call()
+                     .close();
+            Properties props = new Properties();
+            props.setProperty("url", catalogUrl);
+            try (Writer writer = Files.newBufferedWriter(tmpDir.resolve(SNAPSHOT_FILE), StandardCharsets.UTF_8))
+            {
+               props.store(writer, "Booster catalog mirror");
+            }
+            IndexedCatalog.deleteRecursively(dir);
+            Files.move(tmpDir, dir, StandardCopyOption.ATOMIC_MOVE);
+         }
+         Snapshot snapshot = find(dir, catalogUrl, catalogRef);
+         if (snapshot == null)
+         {
+            throw new IllegalStateException("Ref " + catalogRef + " not found in " + catalogUrl);
+         }
+         log.log(Level.INFO, "Updated catalog mirror {0}#{1} ({2}) in {3}",
+                  new Object[] { catalogUrl, catalogRef, snapshot.getCommitId(), dir });
+         return snapshot;
+      }
+      catch (IOException e)
+      {
+         throw new UncheckedIOException(e);
+      }
+      catch (GitAPIException e)
+      {
+         throw new IllegalStateException("Error while fetching " + catalogUrl, e);
+      }
+      finally
+      {
+         IndexedCatalog.deleteQuietly(tmpDir);
+      }
+   }
+
+   /**
+    * Deletes the mirrors if they are not persistent
+    */
+   synchronized void close()
+   {
+      if (!persistent && rootDir != null)
+      {
+         IndexedCatalog.deleteQuietly(rootDir);
+         rootDir = null;
+      }
+   }
+
+   private synchronized Path createRootDir() throws IOException
+   {
+      if (rootDir == null)
+      {
+         rootDir = Files.createTempDirectory("booster-catalog-mirrors");
+      }
+      Files.createDirectories(rootDir);
+      return rootDir;
+   }
+
+   private Object lock(String catalogUrl)
+   {
+      return locks.computeIfAbsent(catalogUrl, url -> new Object());
+   }
+
+   private static String sha1(String value)
+   {
+      try
+      {
+         byte[] digest = MessageDigest.getInstance("SHA-1").digest(value.getBytes(StandardCharsets.UTF_8));
+         StringBuilder sb = new StringBuilder(digest.length * 2);
+         for (byte b : digest)
+         {
+            sb.append(String.format("%02x", b));
+         }
+         return sb.toString();
+      }
+      catch (NoSuchAlgorithmException e)
+      {
+         throw new IllegalStateException(e);
+      }
+   }
+
+   static class Snapshot
+   {
+      private final Path repository;
+      private final String commitId;
+
+      Snapshot(Path repository, String commitId)
+      {
+         this.repository = repository;
+         this.commitId = commitId;
+      }
+
+      /**
+       * @return the URL of the local repository holding this snapshot
+       */
+      String getRepositoryUrl()
+      {
+         return repository.toUri().toString();
+      }
+
+      String getCommitId()
+      {
+         return commitId;
+      }
+   }
+}
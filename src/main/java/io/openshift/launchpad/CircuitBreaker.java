@@ -0,0 +1,135 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.ws.rs.ProcessingException;
+
+/**
+ * Fails fast while a remote service is unreachable. The circuit opens after a number of consecutive connection
+ * failures; while open, requests are rejected at once with a {@link ConnectException}. Once the open period is over, a
+ * single probe request is let through (half-open): the circuit closes if it reaches the service, and opens again
+ * otherwise.
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+class CircuitBreaker
+{
+   private static final Logger log = Logger.getLogger(CircuitBreaker.class.getName());
+
+   enum State
+   {
+      CLOSED, HALF_OPEN, OPEN
+   }
+
+   private final String name;
+   private final int failureThreshold;
+   private final long openMillis;
+
+   private State state = State.CLOSED;
+   private int consecutiveFailures;
+   private long openedAt;
+   private final AtomicLong rejected = new AtomicLong();
+
+   /**
+    * @param name the name of the remote service, used in messages
+    * @param failureThreshold the number of consecutive connection failures opening the circuit
+    * @param openMillis how long the circuit stays open before a probe request is allowed
+    */
+   CircuitBreaker(String name, int failureThreshold, long openMillis)
+   {
+      this.name = name;
+      this.failureThreshold = failureThreshold;
+      this.openMillis = openMillis;
+   }
+
+   /**
+    * Must be called before each request, followed by {@link #onSuccess()} or {@link #onFailure(Throwable)}
+    *
+    * @throws ProcessingException caused by a {@link ConnectException} if the circuit is open
+    */
+   synchronized void acquire() throws ProcessingException
+   {
+      if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis)
+      {
+         // Let this request probe the service
+         state = State.HALF_OPEN;
+         return;
+      }
+      if (state != State.CLOSED)
+      {
+         rejected.incrementAndGet();
+         throw new ProcessingException(new ConnectException(name + " is unreachable (circuit open)"));
+      }
+   }
+
+   synchronized void onSuccess()
+   {
+      if (state != State.CLOSED)
+      {
+         log.log(Level.INFO, "{0} is reachable again, closing circuit", name);
+      }
+      state = State.CLOSED;
+      consecutiveFailures = 0;
+   }
+
+   /**
+    * Only connection failures count; any other failure means the service was reached
+    */
+   synchronized void onFailure(Throwable failure)
+   {
+      if (!isConnectionFailure(failure))
+      {
+         onSuccess();
+         return;
+      }
+      consecutiveFailures++;
+      if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold)
+      {
+         if (state != State.OPEN)
+         {
+            log.log(Level.WARNING, "{0} is unreachable, opening circuit for {1} ms",
+                     new Object[] { name, openMillis });
+         }
+         state = State.OPEN;
+         openedAt = System.currentTimeMillis();
+      }
+   }
+
+   synchronized State getState()
+   {
+      return state;
+   }
+
+   /**
+    * @return the number of requests rejected while the circuit was open
+    */
+   long getRejectedCount()
+   {
+      return rejected.get();
+   }
+
+   static boolean isConnectionFailure(Throwable failure)
+   {
+      Throwable root = failure;
+      while (root.getCause() != null)
+      {
+         root = root.getCause();
+      }
+      return root instanceof ConnectException || root instanceof UnknownHostException
+               || root instanceof NoRouteToHostException
+               // Apache HttpClient connect timeouts (used by RESTEasy)
+               || root.getClass().getSimpleName().equals("ConnectTimeoutException");
+   }
+}
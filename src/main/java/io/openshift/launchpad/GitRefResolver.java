@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+
+/**
+ * Resolves the commit a Git ref points to in a remote repository without cloning it
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+final class GitRefResolver
+{
+   private static final Logger log = Logger.getLogger(GitRefResolver.class.getName());
+
+   private GitRefResolver()
+   {
+   }
+
+   /**
+    * @param repositoryUrl the remote repository URL
+    * @param ref a branch, tag or commit id
+    * @return the commit id the ref points to, <code>null</code> if it could not be resolved
+    */
+   static String resolveCommitId(String repositoryUrl, String ref)
+   {
+      if (ObjectId.isId(ref))
+      {
+         return ref;
+      }
+      try
+      {
+         Map<String, Ref> refs = Git.lsRemoteRepository()
+                  .setRemote(repositoryUrl)
+                  .setHeads(true)
+                  .setTags(true)
+                  .callAsMap();
+         Ref result = refs.get(Constants.R_HEADS + ref);
+         if (result == null)
+         {
+            result = refs.get(Constants.R_TAGS + ref);
+         }
+         if (result == null)
+         {
+            result = refs.get(ref);
+         }
+         if (result == null)
+         {
+            return null;
+         }
+         ObjectId id = result.getPeeledObjectId() != null ? result.getPeeledObjectId() : result.getObjectId();
+         return id == null ? null : id.getName();
+      }
+      catch (Exception e)
+      {
+         log.log(Level.WARNING, "Could not resolve " + repositoryUrl + "#" + ref, e);
+         return null;
+      }
+   }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import io.openshift.booster.catalog.BoosterCatalog;
+import io.openshift.booster.catalog.BoosterCatalogService;
+
+/**
+ * An indexed {@link BoosterCatalogService}, its query index, the commit it was indexed from and the directory holding
+ * its clone
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+class IndexedCatalog
+{
+   private static final Logger log = Logger.getLogger(IndexedCatalog.class.getName());
+
+   private final BoosterCatalogService catalog;
+   private final Path rootDir;
+   private final String commitId;
+   private final CatalogQueryIndex queryIndex;
+   private volatile long size = -1;
+
+   /**
+    * The beans the catalog was produced for that were not disposed yet
+    */
+   private int users;
+   private boolean released;
+
+   /**
+    * @param labelFilters the label filters the query index is built for, besides the unfiltered catalog
+    */
+   IndexedCatalog(BoosterCatalogService catalog, Path rootDir, String commitId, Collection<LabelSet> labelFilters)
+   {
+      this.catalog = catalog;
+      this.rootDir = rootDir;
+      this.commitId = commitId;
+      this.queryIndex = new CatalogQueryIndex(catalog, labelFilters);
+   }
+
+   BoosterCatalog getCatalog()
+   {
+      return catalog;
+   }
+
+   CatalogQueryIndex getQueryIndex()
+   {
+      return queryIndex;
+   }
+
+   Path getRootDir()
+   {
+      return rootDir;
+   }
+
+   /**
+    * @return the commit id the catalog was indexed from, <code>null</code> if unknown
+    */
+   String getCommitId()
+   {
+      return commitId;
+   }
+
+   /**
+    * @return the size in bytes of the clone directory, computed on first call
+    */
+   long getSize()
+   {
+      if (size < 0)
+      {
+         long total = 0;
+         try (Stream<Path> files = Files.walk(rootDir))
+         {
+            total = files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+         }
+         catch (IOException | UncheckedIOException e)
+         {
+            log.log(Level.FINE, "Error while computing the size of " + rootDir, e);
+         }
+         size = total;
+      }
+      return size;
+   }
+
+   /**
+    * Keeps the clone directory until {@link #unretain()} is called, even if the catalog is released meanwhile
+    */
+   synchronized void retain()
+   {
+      users++;
+   }
+
+   /**
+    * @return the number of users left. The clone directory is deleted if there are none and the catalog was released
+    */
+   synchronized int unretain()
+   {
+      if (--users == 0 && released)
+      {
+         deleteQuietly(rootDir);
+      }
+      return users;
+   }
+
+   /**
+    * Deletes the clone directory of this catalog, once it has no users left
+    */
+   synchronized void release()
+   {
+      released = true;
+      if (users == 0)
+      {
+         deleteQuietly(rootDir);
+      }
+   }
+
+   static void deleteQuietly(Path dir)
+   {
+      try
+      {
+         deleteRecursively(dir);
+      }
+      catch (IOException e)
+      {
+         log.log(Level.WARNING, "Error while deleting " + dir, e);
+      }
+   }
+
+   static void deleteRecursively(Path dir) throws IOException
+   {
+      if (dir == null || !Files.exists(dir))
+      {
+         return;
+      }
+      Files.walkFileTree(dir, new SimpleFileVisitor<Path>()
+      {
+         @Override
+         public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException
+         {
+            Files.delete(file);
+            return FileVisitResult.CONTINUE;
+         }
+
+         @Override
+         public FileVisitResult postVisitDirectory(Path d, IOException exc) throws IOException
+         {
+            Files.delete(d);
+            return FileVisitResult.CONTINUE;
+         }
+      });
+   }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import java.io.InputStream;
+import java.util.function.Predicate;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+
+/**
+ * Reads JSON arrays of strings incrementally, without building the whole array in memory.
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+final class JsonStrings
+{
+   private JsonStrings()
+   {
+   }
+
+   /**
+    * Passes each string of the JSON array read from the given stream to the given consumer, until it returns
+    * <code>false</code> or the array ends. The stream is closed.
+    * 
+    * @throws JsonException if the stream does not contain an array of strings
+    */
+   static void forEach(InputStream in, Predicate<String> consumer)
+   {
+      try (JsonParser parser = Json.createParser(in))
+      {
+         if (!parser.hasNext() || parser.next() != Event.START_ARRAY)
+         {
+            throw new JsonException("Expected a JSON array of strings");
+         }
+         while (parser.hasNext())
+         {
+            Event event = parser.next();
+            if (event == Event.END_ARRAY)
+            {
+               return;
+            }
+            if (event != Event.VALUE_STRING)
+            {
+               throw new JsonException("Expected a JSON array of strings, found " + event);
+            }
+            if (!consumer.test(parser.getString()))
+            {
+               return;
+            }
+         }
+         throw new JsonException("Unterminated JSON array");
+      }
+   }
+}
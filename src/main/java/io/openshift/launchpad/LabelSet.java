@@ -0,0 +1,156 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable, sorted set of booster label filters. Instances parsed from the same filter string are shared, so
+ * parsing an already seen filter string does not allocate.
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+public final class LabelSet
+{
+   /**
+    * No label filter
+    */
+   public static final LabelSet EMPTY = new LabelSet(new String[0]);
+
+   /**
+    * Filter strings are client-provided, so only a limited number of them is kept
+    */
+   private static final int MAX_INTERNED = 256;
+
+   private static final Map<String, LabelSet> interned = new ConcurrentHashMap<>();
+
+   private final String[] labels;
+   private final int hashCode;
+
+   private LabelSet(String[] labels)
+   {
+      this.labels = labels;
+      this.hashCode = Arrays.hashCode(labels);
+   }
+
+   /**
+    * @param filters a comma separated list of labels
+    * @return the {@link LabelSet} for the given filters, ignoring blanks, duplicates and order
+    */
+   public static LabelSet parse(String filters)
+   {
+      if (filters == null)
+      {
+         return EMPTY;
+      }
+      LabelSet labelSet = interned.get(filters);
+      if (labelSet == null)
+      {
+         TreeSet<String> sorted = new TreeSet<>();
+         for (String label : filters.split(","))
+         {
+            label = label.trim();
+            if (!label.isEmpty())
+            {
+               sorted.add(label);
+            }
+         }
+         labelSet = sorted.isEmpty() ? EMPTY : new LabelSet(sorted.toArray(new String[sorted.size()]));
+         if (interned.size() < MAX_INTERNED)
+         {
+            LabelSet existing = interned.putIfAbsent(filters, labelSet);
+            if (existing != null)
+            {
+               labelSet = existing;
+            }
+         }
+      }
+      return labelSet;
+   }
+
+   public boolean isEmpty()
+   {
+      return labels.length == 0;
+   }
+
+   public int size()
+   {
+      return labels.length;
+   }
+
+   public boolean contains(String label)
+   {
+      return Arrays.binarySearch(labels, label) >= 0;
+   }
+
+   /**
+    * @return <code>true</code> if all the labels in this set are present in the given labels
+    */
+   public boolean matches(String... boosterLabels)
+   {
+      for (String label : labels)
+      {
+         boolean found = false;
+         for (String boosterLabel : boosterLabels)
+         {
+            if (label.equals(boosterLabel))
+            {
+               found = true;
+               break;
+            }
+         }
+         if (!found)
+         {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * @return a copy of the labels in this set, sorted
+    */
+   public String[] toArray()
+   {
+      return labels.clone();
+   }
+
+   /**
+    * @return the labels in this set, without copying them. Must not be modified
+    */
+   String[] array()
+   {
+      return labels;
+   }
+
+   @Override
+   public int hashCode()
+   {
+      return hashCode;
+   }
+
+   @Override
+   public boolean equals(Object obj)
+   {
+      if (this == obj)
+         return true;
+      if (!(obj instanceof LabelSet))
+         return false;
+      LabelSet other = (LabelSet) obj;
+      return hashCode == other.hashCode && Arrays.equals(labels, other.labels);
+   }
+
+   @Override
+   public String toString()
+   {
+      return String.join(",", labels);
+   }
+}
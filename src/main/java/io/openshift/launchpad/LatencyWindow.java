@@ -0,0 +1,63 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the latest latencies of a request, to estimate its percentiles.
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+final class LatencyWindow
+{
+   private final long[] samples;
+   private final int minSamples;
+   private int next;
+   private int count;
+
+   /**
+    * @param size the number of latest samples kept
+    * @param minSamples the number of samples needed before a percentile is estimated
+    */
+   LatencyWindow(int size, int minSamples)
+   {
+      this.samples = new long[size];
+      this.minSamples = Math.min(minSamples, size);
+   }
+
+   synchronized void record(long nanos)
+   {
+      samples[next] = nanos;
+      next = (next + 1) % samples.length;
+      if (count < samples.length)
+      {
+         count++;
+      }
+   }
+
+   /**
+    * @param percentile between 0 and 1
+    * @return the given percentile of the recorded latencies in nanoseconds, or -1 if not enough were recorded yet
+    */
+   long percentileNanos(double percentile)
+   {
+      long[] sorted;
+      synchronized (this)
+      {
+         if (count < Math.max(1, minSamples))
+         {
+            return -1;
+         }
+         sorted = Arrays.copyOf(samples, count);
+      }
+      Arrays.sort(sorted);
+      int rank = (int) Math.ceil(percentile * sorted.length);
+      return sorted[Math.max(0, Math.min(rank, sorted.length) - 1)];
+   }
+}
@@ -0,0 +1,423 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.TreeFormatter;
+
+/**
+ * A catalog source in the local filesystem, used when the remote catalog repository is slow or unreachable. The source
+ * can be:
+ * <ul>
+ * <li>a Git repository (bare or not) containing the catalog refs</li>
+ * <li>a plain directory with the catalog contents, served for any requested ref</li>
+ * <li>a <code>.tar</code>, <code>.tar.gz</code>, <code>.tgz</code> or <code>.zip</code> archive of any of the
+ * above</li>
+ * </ul>
+ * A plain directory is read in place on every {@link #resolve(String)}: its files are written as Git objects to a
+ * private bare repository, and only the files whose size or modification time changed are read again.
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+class LocalCatalogSource
+{
+   private final Path source;
+
+   /**
+    * The temporary directory the archive source was extracted to, and the archive modification time
+    */
+   private Path extractedDir;
+   private FileTime extractedTime;
+
+   /**
+    * The root of the extracted catalog in {@link #extractedDir}
+    */
+   private Path extractedRoot;
+
+   /**
+    * The temporary bare repository holding the contents of a plain directory, created on first use
+    */
+   private Path generated;
+
+   /**
+    * The files of the plain directory already written to {@link #generated}
+    */
+   private Map<Path, FileState> files = new HashMap<>();
+
+   private ObjectId treeId;
+   private ObjectId commitId;
+
+   LocalCatalogSource(Path source)
+   {
+      this.source = source;
+   }
+
+   /**
+    * @return the local Git repository and commit id holding the catalog for the given ref
+    */
+   synchronized CatalogSnapshotStore.Snapshot resolve(String catalogRef)
+   {
+      try
+      {
+         Path dir = Files.isDirectory(source) ? source : extract();
+         if (isGitRepository(dir))
+         {
+            try (Git git = Git.open(dir.toFile()))
+            {
+               ObjectId id = git.getRepository().resolve(catalogRef + "^{commit}");
+               if (id == null)
+               {
+                  throw new IllegalStateException("Ref " + catalogRef + " not found in " + source);
+               }
+               return new CatalogSnapshotStore.Snapshot(dir, id.getName());
+            }
+         }
+         ObjectId id = commitDirectory(dir, catalogRef);
+         return new CatalogSnapshotStore.Snapshot(generated, id.getName());
+      }
+      catch (IOException e)
+      {
+         throw new UncheckedIOException(e);
+      }
+      catch (GitAPIException e)
+      {
+         throw new IllegalStateException("Error while reading catalog from " + source, e);
+      }
+   }
+
+   /**
+    * Deletes the temporary directories created for this source
+    */
+   synchronized void close()
+   {
+      IndexedCatalog.deleteQuietly(generated);
+      IndexedCatalog.deleteQuietly(extractedDir);
+      generated = null;
+      extractedDir = null;
+      extractedRoot = null;
+      extractedTime = null;
+      files = new HashMap<>();
+      treeId = null;
+      commitId = null;
+   }
+
+   static boolean isGitRepository(Path dir)
+   {
+      return Files.exists(dir.resolve(Constants.DOT_GIT))
+               || (Files.isRegularFile(dir.resolve(Constants.HEAD)) && Files.isDirectory(dir.resolve("objects"))
+                        && Files.isDirectory(dir.resolve("refs")));
+   }
+
+   /**
+    * Commits the current contents of the directory to the generated repository, unless they did not change, and points
+    * the given ref to that commit. A plain directory has the same contents for every ref
+    */
+   private ObjectId commitDirectory(Path dir, String catalogRef) throws IOException, GitAPIException
+   {
+      if (generated == null)
+      {
+         Path repository = Files.createTempDirectory("booster-catalog-local");
+         Git.init().setBare(true).setDirectory(repository.toFile()).call().close();
+         generated = repository;
+      }
+      try (Git git = Git.open(generated.toFile()))
+      {
+         Repository repository = git.getRepository();
+         try (ObjectInserter inserter = repository.newObjectInserter())
+         {
+            Map<Path, FileState> current = new HashMap<>();
+            ObjectId tree = insertTree(inserter, dir, current);
+            if (tree == null)
+            {
+               tree = inserter.insert(new TreeFormatter());
+            }
+            if (!tree.equals(treeId))
+            {
+               PersonIdent ident = new PersonIdent("launchpad", "launchpad@localhost");
+               CommitBuilder commit = new CommitBuilder();
+               commit.setTreeId(tree);
+               commit.setAuthor(ident);
+               commit.setCommitter(ident);
+               commit.setMessage("Catalog read from " + dir);
+               commitId = inserter.insert(commit);
+               treeId = tree;
+            }
+            inserter.flush();
+            files = current;
+         }
+         RefUpdate update = repository.updateRef(Constants.R_HEADS + catalogRef);
+         update.setNewObjectId(commitId);
+         update.setForceUpdate(true);
+         RefUpdate.Result result = update.update();
+         if (result != RefUpdate.Result.NEW && result != RefUpdate.Result.FORCED
+                  && result != RefUpdate.Result.NO_CHANGE)
+         {
+            throw new IOException("Could not update " + catalogRef + " in " + generated + ": " + result);
+         }
+         return commitId;
+      }
+   }
+
+   /**
+    * Writes the given directory as a Git tree, skipping the .git directories
+    *
+    * @param current receives the state of the files written
+    * @return the tree id, <code>null</code> if the directory has no files
+    */
+   private ObjectId insertTree(ObjectInserter inserter, Path dir, Map<Path, FileState> current) throws IOException
+   {
+      List<TreeEntry> entries = new ArrayList<>();
+      try (Stream<Path> children = Files.list(dir))
+      {
+         for (Path child : children.collect(Collectors.toList()))
+         {
+            String name = child.getFileName().toString();
+            if (Constants.DOT_GIT.equals(name))
+            {
+               continue;
+            }
+            BasicFileAttributes attrs = Files.readAttributes(child, BasicFileAttributes.class,
+                     LinkOption.NOFOLLOW_LINKS);
+            if (attrs.isDirectory())
+            {
+               ObjectId id = insertTree(inserter, child, current);
+               if (id != null)
+               {
+                  entries.add(new TreeEntry(name, FileMode.TREE, id));
+               }
+            }
+            else if (attrs.isSymbolicLink())
+            {
+               byte[] target = Files.readSymbolicLink(child).toString().getBytes(StandardCharsets.UTF_8);
+               entries.add(new TreeEntry(name, FileMode.SYMLINK, inserter.insert(Constants.OBJ_BLOB, target)));
+            }
+            else if (attrs.isRegularFile())
+            {
+               FileMode mode = Files.isExecutable(child) ? FileMode.EXECUTABLE_FILE : FileMode.REGULAR_FILE;
+               entries.add(new TreeEntry(name, mode, insertBlob(inserter, child, attrs, current)));
+            }
+         }
+      }
+      if (entries.isEmpty())
+      {
+         return null;
+      }
+      // Git sorts the entries by name, as if the directory names ended with a slash
+      entries.sort(Comparator.comparing(entry -> entry.mode == FileMode.TREE ? entry.name + "/" : entry.name));
+      TreeFormatter tree = new TreeFormatter();
+      for (TreeEntry entry : entries)
+      {
+         tree.append(entry.name, entry.mode, entry.id);
+      }
+      return inserter.insert(tree);
+   }
+
+   /**
+    * @return the id of the file contents, read only if the file changed since the previous call
+    */
+   private ObjectId insertBlob(ObjectInserter inserter, Path file, BasicFileAttributes attrs,
+            Map<Path, FileState> current) throws IOException
+   {
+      FileState state = files.get(file);
+      if (state == null || state.size != attrs.size() || !state.lastModified.equals(attrs.lastModifiedTime()))
+      {
+         try (InputStream is = Files.newInputStream(file))
+         {
+            state = new FileState(attrs.size(), attrs.lastModifiedTime(),
+                     inserter.insert(Constants.OBJ_BLOB, attrs.size(), is));
+         }
+      }
+      current.put(file, state);
+      return state.id;
+   }
+
+   /**
+    * Extracts the archive in a temporary directory, again if it changed since it was last extracted
+    *
+    * @return the extracted root directory
+    */
+   private Path extract() throws IOException
+   {
+      FileTime modified = Files.getLastModifiedTime(source);
+      if (extractedDir != null && modified.equals(extractedTime))
+      {
+         return extractedRoot;
+      }
+      Path target = Files.createTempDirectory("booster-catalog-archive");
+      try
+      {
+         extract(source, target);
+      }
+      catch (IOException | RuntimeException e)
+      {
+         IndexedCatalog.deleteQuietly(target);
+         throw e;
+      }
+      IndexedCatalog.deleteQuietly(extractedDir);
+      extractedDir = target;
+      extractedTime = modified;
+      extractedRoot = target;
+      // Archives usually wrap their contents in a single top-level directory
+      try (Stream<Path> children = Files.list(target))
+      {
+         List<Path> list = children.collect(Collectors.toList());
+         if (list.size() == 1 && Files.isDirectory(list.get(0)))
+         {
+            extractedRoot = list.get(0);
+         }
+      }
+      return extractedRoot;
+   }
+
+   /**
+    * Extracts the regular files and directories of the given archive, keeping the executable bit of the files. Other
+    * entry types (links, devices) are skipped
+    */
+   private static void extract(Path archive, Path target) throws IOException
+   {
+      String name = archive.getFileName().toString().toLowerCase();
+      try (InputStream is = new BufferedInputStream(Files.newInputStream(archive));
+               ArchiveInputStream entries = open(archive, name, is))
+      {
+         ArchiveEntry entry;
+         while ((entry = entries.getNextEntry()) != null)
+         {
+            if (!entries.canReadEntryData(entry))
+            {
+               continue;
+            }
+            Path path = resolveEntry(target, entry.getName());
+            if (entry.isDirectory())
+            {
+               Files.createDirectories(path);
+            }
+            else if (isRegularFile(entry))
+            {
+               Files.createDirectories(path.getParent());
+               Files.copy(entries, path, StandardCopyOption.REPLACE_EXISTING);
+               if ((unixMode(entry) & 0111) != 0)
+               {
+                  path.toFile().setExecutable(true);
+               }
+            }
+         }
+      }
+   }
+
+   private static ArchiveInputStream open(Path archive, String name, InputStream is) throws IOException
+   {
+      if (name.endsWith(".zip"))
+      {
+         return new ZipArchiveInputStream(is);
+      }
+      else if (name.endsWith(".tar.gz") || name.endsWith(".tgz"))
+      {
+         return new TarArchiveInputStream(new GzipCompressorInputStream(is));
+      }
+      else if (name.endsWith(".tar"))
+      {
+         return new TarArchiveInputStream(is);
+      }
+      throw new IllegalArgumentException("Unsupported catalog archive: " + archive);
+   }
+
+   private static boolean isRegularFile(ArchiveEntry entry)
+   {
+      if (entry instanceof TarArchiveEntry)
+      {
+         return ((TarArchiveEntry) entry).isFile();
+      }
+      return !(entry instanceof ZipArchiveEntry) || !((ZipArchiveEntry) entry).isUnixSymlink();
+   }
+
+   private static int unixMode(ArchiveEntry entry)
+   {
+      if (entry instanceof TarArchiveEntry)
+      {
+         return ((TarArchiveEntry) entry).getMode();
+      }
+      if (entry instanceof ZipArchiveEntry)
+      {
+         return ((ZipArchiveEntry) entry).getUnixMode();
+      }
+      return 0;
+   }
+
+   private static Path resolveEntry(Path target, String name) throws IOException
+   {
+      Path path = target.resolve(name).normalize();
+      if (!path.startsWith(target))
+      {
+         throw new IOException("Archive entry outside of the target directory: " + name);
+      }
+      return path;
+   }
+
+   private static class FileState
+   {
+      private final long size;
+      private final FileTime lastModified;
+      private final ObjectId id;
+
+      FileState(long size, FileTime lastModified, ObjectId id)
+      {
+         this.size = size;
+         this.lastModified = lastModified;
+         this.id = id;
+      }
+   }
+
+   private static class TreeEntry
+   {
+      private final String name;
+      private final FileMode mode;
+      private final ObjectId id;
+
+      TreeEntry(String name, FileMode mode, ObjectId id)
+      {
+         this.name = name;
+         this.mode = mode;
+         this.id = id;
+      }
+   }
+}
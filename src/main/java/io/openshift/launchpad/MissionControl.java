@@ -7,28 +7,68 @@
 
 package io.openshift.launchpad;
 
-import java.net.ConnectException;
+import java.io.InputStream;
+import java.io.StringReader;
 import java.net.URI;
-import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonReader;
 import javax.ws.rs.ProcessingException;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.client.Client;
-import javax.ws.rs.client.ClientBuilder;
-import javax.ws.rs.core.GenericType;
+import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 
+import io.openshift.launchpad.metrics.Metrics;
+import io.openshift.launchpad.metrics.Timer;
+
 /**
  * Facade for the Mission Control component
+ * <p>
+ * The <code>*Async</code> methods run the requests in the managed executor (answering at once from the cache when
+ * possible), so callers can compose them instead of blocking a thread for each outstanding call.
  * 
  * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
  */
@@ -37,13 +77,99 @@ public class MissionControl
 {
    private static final String LAUNCHPAD_MISSIONCONTROL_SERVICE_HOST = "LAUNCHPAD_MISSIONCONTROL_SERVICE_HOST";
    private static final String LAUNCHPAD_MISSIONCONTROL_SERVICE_PORT = "LAUNCHPAD_MISSIONCONTROL_SERVICE_PORT";
+   private static final String LAUNCHPAD_MISSIONCONTROL_POOL_SIZE = "LAUNCHPAD_MISSIONCONTROL_POOL_SIZE";
+   private static final String LAUNCHPAD_MISSIONCONTROL_CONNECT_TIMEOUT = "LAUNCHPAD_MISSIONCONTROL_CONNECT_TIMEOUT_MILLIS";
+   private static final String LAUNCHPAD_MISSIONCONTROL_READ_TIMEOUT = "LAUNCHPAD_MISSIONCONTROL_READ_TIMEOUT_MILLIS";
+   private static final String LAUNCHPAD_MISSIONCONTROL_KEEP_ALIVE = "LAUNCHPAD_MISSIONCONTROL_KEEP_ALIVE_MILLIS";
+   private static final String LAUNCHPAD_MISSIONCONTROL_CACHE_TTL = "LAUNCHPAD_MISSIONCONTROL_CACHE_TTL_SECONDS";
+   private static final String LAUNCHPAD_MISSIONCONTROL_CACHE_MAX_SIZE = "LAUNCHPAD_MISSIONCONTROL_CACHE_MAX_SIZE";
+   private static final String LAUNCHPAD_MISSIONCONTROL_CIRCUIT_THRESHOLD = "LAUNCHPAD_MISSIONCONTROL_CIRCUIT_FAILURE_THRESHOLD";
+   private static final String LAUNCHPAD_MISSIONCONTROL_CIRCUIT_OPEN = "LAUNCHPAD_MISSIONCONTROL_CIRCUIT_OPEN_SECONDS";
+   private static final String LAUNCHPAD_MISSIONCONTROL_RETRY_MAX_ATTEMPTS = "LAUNCHPAD_MISSIONCONTROL_RETRY_MAX_ATTEMPTS";
+   private static final String LAUNCHPAD_MISSIONCONTROL_RETRY_BASE_DELAY = "LAUNCHPAD_MISSIONCONTROL_RETRY_BASE_DELAY_MILLIS";
+   private static final String LAUNCHPAD_MISSIONCONTROL_RETRY_MAX_DELAY = "LAUNCHPAD_MISSIONCONTROL_RETRY_MAX_DELAY_MILLIS";
+   private static final String LAUNCHPAD_MISSIONCONTROL_HEDGE_PERCENTILE = "LAUNCHPAD_MISSIONCONTROL_HEDGE_PERCENTILE";
+   private static final String LAUNCHPAD_MISSIONCONTROL_HEDGE_BUDGET = "LAUNCHPAD_MISSIONCONTROL_HEDGE_BUDGET_PERCENT";
    private static final Logger log = Logger.getLogger(MissionControl.class.getName());
 
+   /**
+    * How long to wait before trying the batch validation endpoint again after Mission Control rejected it
+    */
+   private static final long BATCH_RETRY_MINUTES = 10;
+
    public static final String VALIDATION_MESSAGE_OK = "OK";
 
    private final URI missionControlValidationURI;
    private final URI missionControlOpenShiftURI;
 
+   /**
+    * Shared by all requests, so connections are pooled and kept alive between calls
+    */
+   private final Client client;
+
+   /**
+    * Short-lived answers shared by all wizards, keyed by a hash of the Authorization header (never the token itself)
+    */
+   private final TtlCache<String, Object> cache = new TtlCache<>(
+            TimeUnit.SECONDS.toMillis(Long.parseLong(getEnvVarOrSysProp(LAUNCHPAD_MISSIONCONTROL_CACHE_TTL, "30"))),
+            Integer.parseInt(getEnvVarOrSysProp(LAUNCHPAD_MISSIONCONTROL_CACHE_MAX_SIZE, "1000")));
+
+   private volatile long batchUnsupportedUntil;
+
+   /**
+    * Fails requests fast while Mission Control is unreachable, instead of waiting for each connection to time out
+    */
+   private final CircuitBreaker circuitBreaker = new CircuitBreaker("Mission Control",
+            Integer.parseInt(getEnvVarOrSysProp(LAUNCHPAD_MISSIONCONTROL_CIRCUIT_THRESHOLD, "5")),
+            TimeUnit.SECONDS.toMillis(Long.parseLong(getEnvVarOrSysProp(LAUNCHPAD_MISSIONCONTROL_CIRCUIT_OPEN, "30"))));
+
+   /**
+    * Applies to idempotent GET requests only
+    */
+   private final RetryPolicy retryPolicy = new RetryPolicy(
+            Integer.parseInt(getEnvVarOrSysProp(LAUNCHPAD_MISSIONCONTROL_RETRY_MAX_ATTEMPTS, "3")),
+            Long.parseLong(getEnvVarOrSysProp(LAUNCHPAD_MISSIONCONTROL_RETRY_BASE_DELAY, "200")),
+            Long.parseLong(getEnvVarOrSysProp(LAUNCHPAD_MISSIONCONTROL_RETRY_MAX_DELAY, "2000")));
+
+   /**
+    * A GET slower than this percentile of the latest ones is sent a second time, and the first answer wins. Zero
+    * disables hedging
+    */
+   private final double hedgePercentile = Double
+            .parseDouble(getEnvVarOrSysProp(LAUNCHPAD_MISSIONCONTROL_HEDGE_PERCENTILE, "95")) / 100;
+
+   /**
+    * The share of the GET requests that may be hedged, so a slow Mission Control is not sent twice the load
+    */
+   private final double hedgeBudget = Double
+            .parseDouble(getEnvVarOrSysProp(LAUNCHPAD_MISSIONCONTROL_HEDGE_BUDGET, "5")) / 100;
+
+   private final AtomicLong hedgeableRequests = new AtomicLong();
+   private final AtomicLong hedgedRequests = new AtomicLong();
+
+   private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+   /**
+    * The timers of each endpoint, resolved once instead of on every request
+    */
+   private final Map<String, Timer> requestTimers = new ConcurrentHashMap<>();
+   private final Map<String, Timer> hedgedTimers = new ConcurrentHashMap<>();
+
+   /**
+    * Sends the GET requests that may be hedged, so the caller can take whichever answer comes first. It has no more
+    * threads than pooled connections
+    */
+   private final ThreadPoolExecutor requestExecutor;
+
+   /**
+    * Only starts the hedges in the request executor, it never performs them itself
+    */
+   private final ScheduledThreadPoolExecutor hedgeTimer = new ScheduledThreadPoolExecutor(1,
+            daemonThreads("missioncontrol-hedge-timer"));
+
+   @Resource
+   private ManagedExecutorService async;
+
    @Inject
    public MissionControl()
    {
@@ -57,6 +183,28 @@ public class MissionControl
                .port(port).build();
       missionControlOpenShiftURI = UriBuilder.fromPath("/api/openshift").host(host).scheme("http")
                .port(port).build();
+      int poolSize = Integer.parseInt(getEnvVarOrSysProp(LAUNCHPAD_MISSIONCONTROL_POOL_SIZE, "20"));
+      client = RestClients.newPooledClient(poolSize,
+               Long.parseLong(getEnvVarOrSysProp(LAUNCHPAD_MISSIONCONTROL_CONNECT_TIMEOUT, "5000")),
+               Long.parseLong(getEnvVarOrSysProp(LAUNCHPAD_MISSIONCONTROL_READ_TIMEOUT, "10000")),
+               Long.parseLong(getEnvVarOrSysProp(LAUNCHPAD_MISSIONCONTROL_KEEP_ALIVE, "60000")));
+      // 0: closed, 1: half-open, 2: open
+      Metrics.gauge("missioncontrol.circuit.state", () -> circuitBreaker.getState().ordinal());
+      Metrics.gauge("missioncontrol.circuit.rejected", circuitBreaker::getRejectedCount);
+      requestExecutor = new ThreadPoolExecutor(0, poolSize, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+               daemonThreads("missioncontrol-request"));
+      hedgeTimer.setRemoveOnCancelPolicy(true);
+   }
+
+   /**
+    * Closes the underlying HTTP client and its pooled connections
+    */
+   @PreDestroy
+   public void close()
+   {
+      hedgeTimer.shutdownNow();
+      requestExecutor.shutdownNow();
+      client.close();
    }
 
    /**
@@ -68,215 +216,541 @@ public class MissionControl
     */
    public String validateOpenShiftProjectExists(String authHeader, String project, String cluster)
    {
-      String validationMessage;
+      return validate(authHeader, MissionControlCheck.openShiftProjectExists(project, cluster));
+   }
+
+   public String validateGitHubRepositoryExists(String authHeader, String repository)
+   {
+      return validate(authHeader, MissionControlCheck.gitHubRepositoryExists(repository));
+   }
+
+   public String validateOpenShiftTokenExists(String authHeader, String cluster)
+   {
+      // Only positive answers are cached, so a user connecting a missing account sees it at once
+      return cached("token_openshift", authHeader, cluster,
+               () -> validate(authHeader, MissionControlCheck.openShiftTokenExists(cluster)),
+               VALIDATION_MESSAGE_OK::equals);
+   }
+
+   public String validateGitHubTokenExists(String authHeader)
+   {
+      return cached("token_github", authHeader, null,
+               () -> validate(authHeader, MissionControlCheck.gitHubTokenExists()),
+               VALIDATION_MESSAGE_OK::equals);
+   }
+
+   public CompletionStage<String> validateOpenShiftProjectExistsAsync(String authHeader, String project,
+            String cluster)
+   {
+      return supplyAsync(null, authHeader, cluster,
+               () -> validateOpenShiftProjectExists(authHeader, project, cluster));
+   }
+
+   public CompletionStage<String> validateGitHubRepositoryExistsAsync(String authHeader, String repository)
+   {
+      return supplyAsync(null, authHeader, null, () -> validateGitHubRepositoryExists(authHeader, repository));
+   }
+
+   public CompletionStage<String> validateOpenShiftTokenExistsAsync(String authHeader, String cluster)
+   {
+      return supplyAsync("token_openshift", authHeader, cluster,
+               () -> validateOpenShiftTokenExists(authHeader, cluster));
+   }
+
+   public CompletionStage<String> validateGitHubTokenExistsAsync(String authHeader)
+   {
+      return supplyAsync("token_github", authHeader, null, () -> validateGitHubTokenExists(authHeader));
+   }
+
+   public CompletionStage<String> validateAsync(String authHeader, MissionControlCheck check)
+   {
+      return supplyAsync(null, authHeader, null, () -> validate(authHeader, check));
+   }
+
+   /**
+    * Performs the given check
+    * 
+    * @return a validation message, {@link #VALIDATION_MESSAGE_OK} if the check succeeded
+    */
+   public String validate(String authHeader, MissionControlCheck check)
+   {
       try
       {
-         UriBuilder builder = UriBuilder.fromUri(missionControlValidationURI).path("/project/" + project);
-         if (cluster != null)
-         {
-            builder.queryParam("cluster", cluster);
-         }
-         URI targetURI = builder.build();
-         if (head(targetURI, authHeader) == Response.Status.OK.getStatusCode())
-         {
-            validationMessage = "OpenShift Project '" + project + "' already exists";
-         }
-         else
-         {
-            validationMessage = VALIDATION_MESSAGE_OK;
-         }
+         return check.toValidationMessage(
+                  head(check.getEndpoint(), check.resolve(missionControlValidationURI), authHeader));
       }
       catch (Exception e)
       {
-         String message = e.getMessage();
-         Throwable root = rootException(e);
-         if (root instanceof UnknownHostException || root instanceof ConnectException)
-         {
-            validationMessage = "Mission Control is offline and cannot validate the OpenShift Project Name";
-         }
-         else
+         return check.toValidationMessage(e);
+      }
+   }
+
+   /**
+    * Performs all the given checks with a single request to the batch validation endpoint.
+    * 
+    * @return the validation messages, in the same order as the checks. Empty if Mission Control does not support
+    *         batch validation, in which case the checks should be performed one by one
+    * @throws WebApplicationException if Mission Control answered with another error status
+    * @throws ProcessingException if the request failed or the answer does not match the checks
+    */
+   public Optional<List<String>> validateBatch(String authHeader, List<MissionControlCheck> checks)
+   {
+      if (System.currentTimeMillis() < batchUnsupportedUntil)
+      {
+         return Optional.empty();
+      }
+      JsonArrayBuilder paths = Json.createArrayBuilder();
+      for (MissionControlCheck check : checks)
+      {
+         paths.add(check.getRelativeURI());
+      }
+      String body = Json.createObjectBuilder().add("paths", paths).build().toString();
+      URI targetURI = UriBuilder.fromUri(missionControlValidationURI).path("/batch").build();
+      return perform("validate.batch", client -> {
+         Response response = client.target(targetURI)
+                  .request(MediaType.APPLICATION_JSON_TYPE)
+                  .header(HttpHeaders.AUTHORIZATION, authHeader)
+                  .post(Entity.json(body));
+         try
          {
-            if (root.getMessage() != null)
+            int status = response.getStatus();
+            if (status == Response.Status.NOT_FOUND.getStatusCode()
+                     || status == Response.Status.METHOD_NOT_ALLOWED.getStatusCode())
+            {
+               log.log(Level.INFO, "Mission Control does not support batch validation, retrying in {0} minutes",
+                        BATCH_RETRY_MINUTES);
+               batchUnsupportedUntil = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(BATCH_RETRY_MINUTES);
+               return Optional.<List<String>> empty();
+            }
+            if (status != Response.Status.OK.getStatusCode())
+            {
+               throw new WebApplicationException("Mission Control returned HTTP " + status, status);
+            }
+            JsonArray results;
+            try (JsonReader reader = Json.createReader(new StringReader(response.readEntity(String.class))))
+            {
+               results = reader.readObject().getJsonArray("results");
+            }
+            if (results == null || results.size() != checks.size())
+            {
+               throw new ProcessingException("Mission Control did not return a result for each of the "
+                        + checks.size() + " checks");
+            }
+            List<String> messages = new ArrayList<>(checks.size());
+            for (int i = 0; i < checks.size(); i++)
             {
-               message = root.getMessage();
+               messages.add(checks.get(i).toValidationMessage(results.getJsonObject(i).getInt("status")));
             }
-            validationMessage = "Error while validating OpenShift Project Name: " + message;
+            return Optional.of(messages);
+         }
+         finally
+         {
+            response.close();
          }
+      });
+   }
+
+   public CompletionStage<Optional<List<String>>> validateBatchAsync(String authHeader,
+            List<MissionControlCheck> checks)
+   {
+      return supplyAsync(null, authHeader, null, () -> validateBatch(authHeader, checks));
+   }
+
+   public CompletionStage<List<String>> getOpenShiftClustersAsync(String authHeader)
+   {
+      return supplyAsync("clusters", authHeader, null, () -> getOpenShiftClusters(authHeader));
+   }
+
+   public CompletionStage<List<String>> getProjectsAsync(String authHeader, String cluster)
+   {
+      return supplyAsync("projects", authHeader, cluster, () -> getProjects(authHeader, cluster));
+   }
+
+   /**
+    * @return the OpenShift clusters the user is connected to, an empty list if they could not be fetched
+    */
+   public List<String> getOpenShiftClusters(String authHeader)
+   {
+      // Errors are not cached, only actual answers
+      try
+      {
+         return cached("clusters", authHeader, null,
+                  () -> Collections.unmodifiableList(fetchOpenShiftClusters(authHeader)), list -> true);
+      }
+      catch (Exception e)
+      {
+         log.log(Level.SEVERE, "Error while returning openshift clusters", e);
+         return Collections.emptyList();
       }
-      return validationMessage;
    }
 
-   public String validateGitHubRepositoryExists(String authHeader, String repository)
+   /**
+    * @return the OpenShift projects of the user in the given cluster, sorted, or an empty list if they could not be
+    *         fetched
+    */
+   public List<String> getProjects(String authHeader, String cluster)
    {
-      String validationMessage;
       try
       {
-         URI targetURI = UriBuilder.fromUri(missionControlValidationURI).path("/repository/" + repository).build();
-         if (head(targetURI, authHeader) == Response.Status.OK.getStatusCode())
-         {
-            validationMessage = "GitHub Repository '" + repository + "' already exists";
-         }
-         else
+         return cached("projects", authHeader, cluster,
+                  () -> get("openshift.projects", projectsURI(cluster), authHeader, ProjectList::read), list -> true);
+      }
+      catch (Exception e)
+      {
+         log.log(Level.SEVERE, "Error while returning openshift projects", e);
+         return Collections.emptyList();
+      }
+   }
+
+   /**
+    * Tells if the user has the given project in the given cluster, without keeping the whole project list in memory
+    * unless it was already fetched
+    * 
+    * @return <code>false</code> if the project does not exist or if the projects could not be fetched
+    */
+   public boolean projectExists(String authHeader, String cluster, String project)
+   {
+      ProjectList projects = cachedProjects(authHeader, cluster);
+      if (projects != null)
+      {
+         return projects.contains(project);
+      }
+      try
+      {
+         return get("openshift.projects", projectsURI(cluster), authHeader, in -> ProjectList.contains(in, project));
+      }
+      catch (Exception e)
+      {
+         log.log(Level.SEVERE, "Error while looking up openshift project " + project, e);
+         return false;
+      }
+   }
+
+   /**
+    * Returns the first projects of the user in the given cluster, in alphabetical order, starting with the given
+    * prefix, without keeping the whole project list in memory unless it was already fetched
+    * 
+    * @return an empty list if no project matches or if the projects could not be fetched
+    */
+   public List<String> findProjects(String authHeader, String cluster, String prefix, int limit)
+   {
+      ProjectList projects = cachedProjects(authHeader, cluster);
+      if (projects != null)
+      {
+         return projects.withPrefix(prefix, limit);
+      }
+      try
+      {
+         return get("openshift.projects", projectsURI(cluster), authHeader,
+                  in -> ProjectList.withPrefix(in, prefix, limit));
+      }
+      catch (Exception e)
+      {
+         log.log(Level.SEVERE, "Error while looking up openshift projects", e);
+         return Collections.emptyList();
+      }
+   }
+
+   /**
+    * Runs the given call in the executor, unless its answer is cached
+    * 
+    * @param lookup the cached lookup answered by the call, <code>null</code> if it is not cached
+    */
+   @SuppressWarnings("unchecked")
+   private <T> CompletionStage<T> supplyAsync(String lookup, String authHeader, String cluster, Supplier<T> call)
+   {
+      if (lookup != null && authHeader != null)
+      {
+         T value = (T) cache.getIfPresent(cacheKey(lookup, authHeader, cluster));
+         if (value != null)
          {
-            validationMessage = VALIDATION_MESSAGE_OK;
+            return CompletableFuture.completedFuture(value);
          }
       }
-      catch (Exception e)
+      return CompletableFuture.supplyAsync(call, executor());
+   }
+
+   private Executor executor()
+   {
+      return async != null ? async : ForkJoinPool.commonPool();
+   }
+
+   private ProjectList cachedProjects(String authHeader, String cluster)
+   {
+      return authHeader == null ? null : (ProjectList) cache.getIfPresent(cacheKey("projects", authHeader, cluster));
+   }
+
+   private List<String> fetchOpenShiftClusters(String authHeader)
+   {
+      URI targetURI = UriBuilder.fromUri(missionControlOpenShiftURI).path("/clusters").build();
+      return get("openshift.clusters", targetURI, authHeader, in -> {
+         List<String> clusters = new ArrayList<>();
+         JsonStrings.forEach(in, clusters::add);
+         return clusters;
+      });
+   }
+
+   private URI projectsURI(String cluster)
+   {
+      UriBuilder builder = UriBuilder.fromUri(missionControlOpenShiftURI).path("/projects");
+      if (cluster != null)
+      {
+         builder.queryParam("cluster", cluster);
+      }
+      return builder.build();
+   }
+
+   /**
+    * Performs an idempotent GET request, retrying transient failures
+    * 
+    * @param reader reads the JSON response body as it is received
+    * @throws WebApplicationException if Mission Control answered with an error status
+    */
+   private <T> T get(String endpoint, URI targetURI, String authHeader, Function<InputStream, T> reader)
+   {
+      Function<Client, T> request = client -> readEntity(client
+               .target(targetURI)
+               .request(MediaType.APPLICATION_JSON_TYPE)
+               .header(HttpHeaders.AUTHORIZATION, authHeader)
+               .get(), reader);
+      for (int attempt = 1;; attempt++)
       {
-         String message = e.getMessage();
-         Throwable root = rootException(e);
-         if (root instanceof UnknownHostException || root instanceof ConnectException)
+         try
          {
-            validationMessage = "Mission Control is offline and cannot validate the GitHub Repository Name";
+            return hedged(endpoint, request);
          }
-         else
+         catch (RuntimeException e)
          {
-            if (root.getMessage() != null)
+            // No point in retrying while the circuit is open
+            if (!retryPolicy.shouldRetry(attempt, e) || circuitBreaker.getState() == CircuitBreaker.State.OPEN)
+            {
+               throw e;
+            }
+            long delay = retryPolicy.delayMillis(attempt);
+            log.log(Level.FINE, "Retrying " + endpoint + " in " + delay + " ms", e);
+            try
             {
-               message = root.getMessage();
+               Thread.sleep(delay);
+            }
+            catch (InterruptedException ie)
+            {
+               Thread.currentThread().interrupt();
+               throw e;
             }
-            validationMessage = "Error while validating GitHub Repository Name: " + message;
          }
       }
-      return validationMessage;
    }
 
-   public String validateOpenShiftTokenExists(String authHeader, String cluster)
+   /**
+    * Sends the given request from the request executor. If it takes longer than the configured percentile of the
+    * latest ones, the request is sent a second time and the first successful answer is returned, the other request
+    * being cancelled. A failure is only returned once both requests failed. Hedges are limited to a share of the
+    * requests and are not sent unless the circuit is closed
+    */
+   private <T> T hedged(String endpoint, Function<Client, T> request)
    {
-      String validationMessage;
+      LatencyWindow window = latencies.computeIfAbsent(endpoint, name -> new LatencyWindow(100, 20));
+      Function<Client, T> timedRequest = client -> {
+         long start = System.nanoTime();
+         T result = request.apply(client);
+         window.record(System.nanoTime() - start);
+         return result;
+      };
+      hedgeableRequests.incrementAndGet();
+      long hedgeAfterNanos = hedgePercentile > 0 ? window.percentileNanos(hedgePercentile) : -1;
+      if (hedgeAfterNanos < 0)
+      {
+         return perform(endpoint, timedRequest);
+      }
+      CompletableFuture<T> result = new CompletableFuture<>();
+      // The requests still running: the last one to fail completes the result with the first failure
+      AtomicInteger running = new AtomicInteger(1);
+      AtomicReference<Throwable> failure = new AtomicReference<>();
+      AtomicReference<Future<?>> hedge = new AtomicReference<>();
+      Future<?> primary;
       try
       {
-         UriBuilder builder = UriBuilder.fromUri(missionControlValidationURI).path("/token/openshift");
-         if (cluster != null)
+         primary = requestExecutor.submit(() -> race(endpoint, timedRequest, result, running, failure));
+      }
+      catch (RejectedExecutionException e)
+      {
+         // Every pooled connection is in use, a hedge would only wait for one
+         return perform(endpoint, timedRequest);
+      }
+      ScheduledFuture<?> trigger = hedgeTimer.schedule(() -> {
+         if (result.isDone() || circuitBreaker.getState() != CircuitBreaker.State.CLOSED || !acquireHedge()
+                  || running.getAndUpdate(count -> count == 0 ? 0 : count + 1) == 0)
          {
-            builder.queryParam("cluster", cluster);
+            return;
          }
-         URI targetURI = builder.build();
-         if (head(targetURI, authHeader) == Response.Status.OK.getStatusCode())
+         hedgedTimers.computeIfAbsent(endpoint, name -> Metrics.timer("missioncontrol.hedged", "endpoint", name))
+                  .record(hedgeAfterNanos, TimeUnit.NANOSECONDS);
+         try
          {
-            validationMessage = VALIDATION_MESSAGE_OK;
+            hedge.set(requestExecutor.submit(() -> race(endpoint, timedRequest, result, running, failure)));
          }
-         else
+         catch (RejectedExecutionException e)
          {
-            validationMessage = "OpenShift Token does not exist";
+            if (running.decrementAndGet() == 0)
+            {
+               result.completeExceptionally(failure.get());
+            }
+            return;
          }
-      }
-      catch (Exception e)
-      {
-         String message = e.getMessage();
-         Throwable root = rootException(e);
-         if (root instanceof UnknownHostException || root instanceof ConnectException)
+         // The caller may have returned before the hedge was set
+         if (result.isDone())
          {
-            validationMessage = "Mission Control is offline and cannot validate if the OpenShift token exists";
+            hedge.get().cancel(true);
          }
-         else
+      }, hedgeAfterNanos, TimeUnit.NANOSECONDS);
+      try
+      {
+         return result.join();
+      }
+      catch (CompletionException e)
+      {
+         throw unwrap(e);
+      }
+      finally
+      {
+         trigger.cancel(false);
+         primary.cancel(true);
+         Future<?> sent = hedge.get();
+         if (sent != null)
          {
-            if (root.getMessage() != null)
-            {
-               message = root.getMessage();
-            }
-            validationMessage = "Error while validating if the OpenShift Token exists: " + message;
+            sent.cancel(true);
          }
       }
-      return validationMessage;
    }
 
-   public String validateGitHubTokenExists(String authHeader)
+   /**
+    * Performs one of the raced requests, completing the result with its answer
+    */
+   private <T> void race(String endpoint, Function<Client, T> request, CompletableFuture<T> result,
+            AtomicInteger running, AtomicReference<Throwable> failure)
    {
-      String validationMessage;
       try
       {
-         URI targetURI = UriBuilder.fromUri(missionControlValidationURI).path("/token/github").build();
-         if (head(targetURI, authHeader) == Response.Status.OK.getStatusCode())
-         {
-            validationMessage = VALIDATION_MESSAGE_OK;
-         }
-         else
-         {
-            validationMessage = "GitHub Token does not exist";
-         }
+         result.complete(perform(endpoint, request));
       }
-      catch (Exception e)
+      catch (RuntimeException | Error e)
       {
-         String message = e.getMessage();
-         Throwable root = rootException(e);
-         if (root instanceof UnknownHostException || root instanceof ConnectException)
+         failure.compareAndSet(null, e);
+         if (running.decrementAndGet() == 0)
          {
-            validationMessage = "Mission Control is offline and cannot validate if the GitHub token exists";
+            result.completeExceptionally(failure.get());
          }
-         else
+      }
+   }
+
+   /**
+    * @return <code>true</code> if a hedge may be sent without going over the hedge budget
+    */
+   private boolean acquireHedge()
+   {
+      long hedges;
+      do
+      {
+         hedges = hedgedRequests.get();
+         if (hedges + 1 > hedgeableRequests.get() * hedgeBudget)
          {
-            if (root.getMessage() != null)
-            {
-               message = root.getMessage();
-            }
-            validationMessage = "Error while validating if the GitHub Token exists: " + message;
+            return false;
          }
       }
-      return validationMessage;
+      while (!hedgedRequests.compareAndSet(hedges, hedges + 1));
+      return true;
    }
 
-   public List<String> getOpenShiftClusters(String authHeader)
+   private static RuntimeException unwrap(Throwable failure)
    {
-      URI targetURI = UriBuilder.fromUri(missionControlOpenShiftURI).path("/clusters").build();
-      try
+      Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause()
+               : failure;
+      if (cause instanceof RuntimeException)
       {
-         return perform(client -> client
-                  .target(targetURI)
-                  .request(MediaType.APPLICATION_JSON_TYPE)
-                  .header(HttpHeaders.AUTHORIZATION, authHeader)
-                  .get().readEntity(new GenericType<List<String>>()
-                  {
-                  }));
+         return (RuntimeException) cause;
       }
-      catch (Exception e)
+      if (cause instanceof Error)
       {
-         log.log(Level.SEVERE, "Error while returning openshift clusters", e);
-         return Collections.emptyList();
+         throw (Error) cause;
       }
+      return new ProcessingException(cause);
    }
 
-   public List<String> getProjects(String authHeader, String cluster)
+   /**
+    * @return the cached answer for the given auth identity and cluster, loading it if needed. Nothing is cached for
+    *         anonymous requests
+    */
+   @SuppressWarnings("unchecked")
+   private <T> T cached(String lookup, String authHeader, String cluster, Supplier<T> loader,
+            Predicate<T> cacheable)
    {
-      UriBuilder builder = UriBuilder.fromUri(missionControlOpenShiftURI).path("/projects");
-      if (cluster != null)
+      if (authHeader == null)
       {
-         builder.queryParam("cluster", cluster);
+         return loader.get();
       }
-      URI targetURI = builder.build();
+      return (T) cache.get(cacheKey(lookup, authHeader, cluster), (Supplier<Object>) loader,
+               value -> cacheable.test((T) value));
+   }
+
+   private static String cacheKey(String lookup, String authHeader, String cluster)
+   {
+      return lookup + ":" + sha256(authHeader) + ":" + Objects.toString(cluster, "");
+   }
+
+   private static String sha256(String value)
+   {
       try
       {
-         return perform(client -> client
-                  .target(targetURI)
-                  .request(MediaType.APPLICATION_JSON_TYPE)
-                  .header(HttpHeaders.AUTHORIZATION, authHeader)
-                  .get().readEntity(new GenericType<List<String>>()
-                  {
-                  }));
+         byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+         return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
       }
-      catch (Exception e)
+      catch (NoSuchAlgorithmException e)
       {
-         log.log(Level.SEVERE, "Error while returning openshift projects", e);
-         return Collections.emptyList();
+         throw new IllegalStateException(e);
       }
+   }
 
+   private int head(String endpoint, URI targetURI, String authHeader) throws ProcessingException
+   {
+      return perform(endpoint, client -> {
+         Response response = client.target(targetURI).request()
+                  .header(HttpHeaders.AUTHORIZATION, authHeader)
+                  .head();
+         int status = response.getStatus();
+         // Release the connection back to the pool
+         response.close();
+         return status;
+      });
    }
 
-   private Throwable rootException(Exception e)
+   /**
+    * @throws WebApplicationException if the response has an error status
+    */
+   private static <T> T readEntity(Response response, Function<InputStream, T> reader)
    {
-      Throwable root = e;
-      while (root.getCause() != null)
+      try
       {
-         root = root.getCause();
+         int status = response.getStatus();
+         if (status >= 400)
+         {
+            throw new WebApplicationException("Mission Control returned HTTP " + status, status);
+         }
+         // Closing the response before the body is fully read discards the connection instead of pooling it
+         return reader.apply(response.readEntity(InputStream.class));
+      }
+      finally
+      {
+         response.close();
       }
-      return root;
    }
 
-   private int head(URI targetURI, String authHeader) throws ProcessingException
+   private static ThreadFactory daemonThreads(String name)
    {
-      return perform(client -> client.target(targetURI).request()
-               .header(HttpHeaders.AUTHORIZATION, authHeader)
-               .head().getStatus());
+      return r -> {
+         Thread thread = new Thread(r, name);
+         thread.setDaemon(true);
+         return thread;
+      };
    }
 
    private static String getEnvVarOrSysProp(String name, String defaultValue)
@@ -284,20 +758,30 @@ public class MissionControl
       return System.getProperty(name, System.getenv().getOrDefault(name, defaultValue));
    }
 
-   private <T> T perform(Function<Client, T> request)
+   /**
+    * @param endpoint the name of the called endpoint, used to time the request
+    * @throws ProcessingException caused by a {@link java.net.ConnectException} if Mission Control is known to be
+    *            unreachable
+    */
+   private <T> T perform(String endpoint, Function<Client, T> request)
    {
-      Client client = null;
+      circuitBreaker.acquire();
+      long start = System.nanoTime();
       try
       {
-         client = ClientBuilder.newClient();
-         return request.apply(client);
+         T result = request.apply(client);
+         circuitBreaker.onSuccess();
+         return result;
+      }
+      catch (RuntimeException | Error e)
+      {
+         circuitBreaker.onFailure(e);
+         throw e;
       }
       finally
       {
-         if (client != null)
-         {
-            client.close();
-         }
+         requestTimers.computeIfAbsent(endpoint, name -> Metrics.timer("missioncontrol.request", "endpoint", name))
+                  .recordSince(start);
       }
    }
 
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.UnknownHostException;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriBuilder;
+
+/**
+ * A validation performed by Mission Control: the <code>/api/validate</code> resource to check and how its HTTP status
+ * translates into a validation message
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+public final class MissionControlCheck
+{
+   private final String endpoint;
+   private final String path;
+   private final String cluster;
+   private final boolean okIfFound;
+   private final String failureMessage;
+   private final String offlineMessage;
+   private final String errorMessage;
+
+   private MissionControlCheck(String endpoint, String path, String cluster, boolean okIfFound,
+            String failureMessage, String offlineMessage, String errorMessage)
+   {
+      this.endpoint = endpoint;
+      this.path = path;
+      this.cluster = cluster;
+      this.okIfFound = okIfFound;
+      this.failureMessage = failureMessage;
+      this.offlineMessage = offlineMessage;
+      this.errorMessage = errorMessage;
+   }
+
+   /**
+    * Succeeds if the OpenShift project does not exist yet
+    */
+   public static MissionControlCheck openShiftProjectExists(String project, String cluster)
+   {
+      return new MissionControlCheck("validate.project", "/project/" + project, cluster, false,
+               "OpenShift Project '" + project + "' already exists",
+               "Mission Control is offline and cannot validate the OpenShift Project Name",
+               "Error while validating OpenShift Project Name: ");
+   }
+
+   /**
+    * Succeeds if the GitHub repository does not exist yet
+    */
+   public static MissionControlCheck gitHubRepositoryExists(String repository)
+   {
+      return new MissionControlCheck("validate.repository", "/repository/" + repository, null, false,
+               "GitHub Repository '" + repository + "' already exists",
+               "Mission Control is offline and cannot validate the GitHub Repository Name",
+               "Error while validating GitHub Repository Name: ");
+   }
+
+   /**
+    * Succeeds if the user has an OpenShift token
+    */
+   public static MissionControlCheck openShiftTokenExists(String cluster)
+   {
+      return new MissionControlCheck("validate.token.openshift", "/token/openshift", cluster, true,
+               "OpenShift Token does not exist",
+               "Mission Control is offline and cannot validate if the OpenShift token exists",
+               "Error while validating if the OpenShift Token exists: ");
+   }
+
+   /**
+    * Succeeds if the user has a GitHub token
+    */
+   public static MissionControlCheck gitHubTokenExists()
+   {
+      return new MissionControlCheck("validate.token.github", "/token/github", null, true,
+               "GitHub Token does not exist",
+               "Mission Control is offline and cannot validate if the GitHub token exists",
+               "Error while validating if the GitHub Token exists: ");
+   }
+
+   /**
+    * @return the name of this check, used in metrics
+    */
+   String getEndpoint()
+   {
+      return endpoint;
+   }
+
+   /**
+    * @return the URI of this check, relative to the validation resource
+    */
+   String getRelativeURI()
+   {
+      return resolve(UriBuilder.fromPath(path)).toString();
+   }
+
+   URI resolve(URI validationURI)
+   {
+      return resolve(UriBuilder.fromUri(validationURI).path(path));
+   }
+
+   private URI resolve(UriBuilder builder)
+   {
+      if (cluster != null)
+      {
+         builder.queryParam("cluster", cluster);
+      }
+      return builder.build();
+   }
+
+   /**
+    * @return the validation message for the given HTTP status
+    */
+   String toValidationMessage(int status)
+   {
+      boolean found = status == Response.Status.OK.getStatusCode();
+      return found == okIfFound ? MissionControl.VALIDATION_MESSAGE_OK : failureMessage;
+   }
+
+   /**
+    * @return the validation message when the check could not be performed
+    */
+   String toValidationMessage(Exception e)
+   {
+      Throwable root = e;
+      while (root.getCause() != null)
+      {
+         root = root.getCause();
+      }
+      if (root instanceof UnknownHostException || root instanceof ConnectException)
+      {
+         return offlineMessage;
+      }
+      String message = root.getMessage() != null ? root.getMessage() : e.getMessage();
+      return errorMessage + message;
+   }
+}
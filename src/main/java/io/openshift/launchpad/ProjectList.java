@@ -0,0 +1,154 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import java.io.InputStream;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.TreeSet;
+
+/**
+ * An immutable, sorted list of OpenShift project names, stored as a single array.
+ * <p>
+ * Users in large organizations can see thousands of projects, so the list is read incrementally from the Mission
+ * Control response and the lookups made by the wizard are answered without copying it.
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+public final class ProjectList extends AbstractList<String> implements RandomAccess
+{
+   private static final ProjectList EMPTY = new ProjectList(new String[0]);
+
+   private final String[] names;
+
+   private ProjectList(String[] names)
+   {
+      this.names = names;
+   }
+
+   /**
+    * Reads the JSON array of project names from the given stream, and closes it
+    */
+   static ProjectList read(InputStream in)
+   {
+      String[][] buffer = { new String[64] };
+      int[] size = { 0 };
+      JsonStrings.forEach(in, name -> {
+         if (size[0] == buffer[0].length)
+         {
+            buffer[0] = Arrays.copyOf(buffer[0], size[0] * 2);
+         }
+         buffer[0][size[0]++] = name;
+         return true;
+      });
+      if (size[0] == 0)
+      {
+         return EMPTY;
+      }
+      String[] names = buffer[0];
+      Arrays.sort(names, 0, size[0]);
+      // Remove duplicates in place
+      int unique = 1;
+      for (int i = 1; i < size[0]; i++)
+      {
+         if (!names[i].equals(names[unique - 1]))
+         {
+            names[unique++] = names[i];
+         }
+      }
+      return new ProjectList(Arrays.copyOf(names, unique));
+   }
+
+   /**
+    * Tells if the JSON array of project names read from the given stream contains the given project, reading the
+    * stream only until it is found. The stream is closed
+    */
+   static boolean contains(InputStream in, String project)
+   {
+      boolean[] found = { false };
+      JsonStrings.forEach(in, name -> !(found[0] = name.equals(project)));
+      return found[0];
+   }
+
+   /**
+    * Reads the first project names, in alphabetical order, starting with the given prefix from the JSON array read
+    * from the given stream. Only these names are kept in memory. The stream is closed
+    */
+   static List<String> withPrefix(InputStream in, String prefix, int limit)
+   {
+      if (limit <= 0)
+      {
+         return Collections.emptyList();
+      }
+      TreeSet<String> first = new TreeSet<>();
+      JsonStrings.forEach(in, name -> {
+         if (name.startsWith(prefix) && (first.size() < limit || name.compareTo(first.last()) < 0))
+         {
+            if (first.add(name) && first.size() > limit)
+            {
+               first.pollLast();
+            }
+         }
+         return true;
+      });
+      return Collections.unmodifiableList(new ArrayList<>(first));
+   }
+
+   /**
+    * @return the first project names, in alphabetical order, starting with the given prefix
+    */
+   public List<String> withPrefix(String prefix, int limit)
+   {
+      int from = Arrays.binarySearch(names, prefix);
+      if (from < 0)
+      {
+         from = -from - 1;
+      }
+      int to = from;
+      while (to < names.length && to - from < limit && names[to].startsWith(prefix))
+      {
+         to++;
+      }
+      return subList(from, to);
+   }
+
+   @Override
+   public boolean contains(Object project)
+   {
+      return project instanceof String && Arrays.binarySearch(names, project) >= 0;
+   }
+
+   @Override
+   public int indexOf(Object project)
+   {
+      int index = project instanceof String ? Arrays.binarySearch(names, project) : -1;
+      return index < 0 ? -1 : index;
+   }
+
+   @Override
+   public int lastIndexOf(Object project)
+   {
+      return indexOf(project);
+   }
+
+   @Override
+   public String get(int index)
+   {
+      return names[index];
+   }
+
+   @Override
+   public int size()
+   {
+      return names.length;
+   }
+}
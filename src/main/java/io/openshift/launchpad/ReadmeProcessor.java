@@ -7,98 +7,340 @@
 
 package io.openshift.launchpad;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
 import java.util.Map;
-import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.event.Observes;
 import javax.inject.Singleton;
 
-import org.apache.commons.lang3.text.StrSubstitutor;
+import org.jboss.forge.furnace.container.cdi.events.Local;
+import org.jboss.forge.furnace.event.PostStartup;
 
 import io.openshift.booster.catalog.DeploymentType;
 import io.openshift.booster.catalog.Mission;
 import io.openshift.booster.catalog.Runtime;
+import io.openshift.launchpad.metrics.Metrics;
+import io.openshift.launchpad.metrics.Timer;
 
 /**
  * Reads the contents from the appdev-documentation repository
+ * <p>
+ * The contents are bundled in the addon, unless the <code>LAUNCHPAD_README_DIRECTORY</code> environment variable points
+ * to a directory with the readme files (eg. the <code>docs/topics/readme</code> directory of a checkout of
+ * appdev-documentation). That directory is watched, and the changed contents replace the previous ones at once, without
+ * a restart.
  *
  * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
  */
 @Singleton
 public class ReadmeProcessor
 {
-   private static final String README_TEMPLATE_PATH = "readme/%s-README.adoc";
-   private static final String README_PROPERTIES_PATH = "readme/%s-%s-%s.properties";
+   private static final String LAUNCHPAD_README_DIRECTORY = "LAUNCHPAD_README_DIRECTORY";
+   private static final String LAUNCHPAD_README_WATCH = "LAUNCHPAD_README_WATCH";
 
-   URL getTemplateURL(String missionId)
+   private static final String README_PROPERTIES_PATH = ReadmeResources.README_PATH + "%s-%s-%s.properties";
+
+   /**
+    * How long to wait for a change to the readme directory to settle, eg. a whole git pull
+    */
+   private static final long RELOAD_DELAY_MILLIS = 1000;
+
+   private static final Logger log = Logger.getLogger(ReadmeProcessor.class.getName());
+
+   private final Path directory = getDirectory();
+
+   /**
+    * Replaced as a whole when the readme directory changes, so a generated project never mixes old and new contents
+    */
+   private volatile ReadmeResources resources = loadResources();
+
+   private WatchService watchService;
+
+   /**
+    * Only used by the watcher thread, once started
+    */
+   private WatchKey directoryKey;
+
+   private final Timer renderTimer = Metrics.timer("readme.render");
+
+   @Resource
+   private ManagedExecutorService async;
+
+   void init(@Observes @Local PostStartup startup)
    {
-      return getClass().getClassLoader().getResource(String.format(README_TEMPLATE_PATH, missionId));
+      warmUp().exceptionally(e -> {
+         // The failed ones are read again when a project is generated
+         log.log(Level.WARNING, "Error while loading the readme templates", e);
+         return null;
+      });
+      if (directory != null && Boolean.parseBoolean(getEnvVarOrSysProp(LAUNCHPAD_README_WATCH, "true")))
+      {
+         watch();
+      }
    }
 
-   URL getPropertiesURL(String deploymentType, String missionId, String runtimeId)
+   @PreDestroy
+   public void close()
    {
-      return getClass().getClassLoader().getResource(
-               String.format(README_PROPERTIES_PATH, deploymentType, missionId, runtimeId));
+      WatchService w = watchService;
+      if (w != null)
+      {
+         try
+         {
+            w.close();
+         }
+         catch (IOException e)
+         {
+            log.log(Level.FINE, "Error while closing the readme directory watcher", e);
+         }
+      }
    }
 
-   public String getReadmeTemplate(String prefix, Mission mission) throws IOException
+   /**
+    * Loads all the indexed readme templates and runtime properties in parallel, so generating a project does not read
+    * any of them
+    * 
+    * @return completes when they are all loaded, exceptionally if any of them could not be loaded
+    */
+   public CompletableFuture<Void> warmUp()
    {
-      if (prefix == null)
+      return resources.warmUp(executor());
+   }
+
+   /**
+    * Reads the readme directory again and replaces the current contents, once the new ones are loaded. If any of them
+    * cannot be loaded, the current contents are kept
+    */
+   public void reload()
+   {
+      if (directory == null)
+      {
+         return;
+      }
+      try
+      {
+         ReadmeResources newResources = ReadmeResources.fromDirectory(directory);
+         newResources.warmUp(executor()).join();
+         resources = newResources;
+         log.log(Level.INFO, "Reloaded the readme templates from {0}", directory);
+      }
+      catch (IOException | RuntimeException e)
       {
-         return getReadmeTemplate(mission);
+         log.log(Level.WARNING, "Error while reloading the readme templates from " + directory
+                  + ", keeping the previous ones", e instanceof CompletionException ? e.getCause() : e);
       }
-      URL url = getTemplateURL(prefix + "-" + mission.getId());
-      return url == null ? null : loadContents(url);
+   }
+
+   URL getTemplateURL(String missionId)
+   {
+      return resources.getResource(ReadmeResources.README_PATH + missionId + ReadmeResources.README_TEMPLATE_SUFFIX);
+   }
+
+   public String getReadmeTemplate(String prefix, Mission mission) throws IOException
+   {
+      ReadmeTemplate template = getTemplate(prefix, mission);
+      return template == null ? null : template.getText();
    }
 
    public String getReadmeTemplate(Mission mission) throws IOException
    {
-      URL url = getTemplateURL(mission.getId());
-      return url == null ? null : loadContents(url);
+      return getReadmeTemplate(null, mission);
+   }
+
+   /**
+    * @param prefix the template prefix, may be <code>null</code>
+    * @return the parsed template for the given mission, <code>null</code> if there is none. Templates are only read
+    *         once
+    */
+   public ReadmeTemplate getTemplate(String prefix, Mission mission) throws IOException
+   {
+      return resources.getTemplate(prefix == null ? mission.getId() : prefix + "-" + mission.getId());
    }
 
-   @SuppressWarnings("all")
+   /**
+    * @return the immutable runtime properties, empty if there are none or if they could not be read. Properties are
+    *         only read once
+    */
    public Map<String, String> getRuntimeProperties(DeploymentType deploymentType, Mission mission, Runtime runtime)
    {
-      Properties props = new Properties();
+      String path = String.format(README_PROPERTIES_PATH, deploymentType.name().toLowerCase(), mission.getId(),
+               runtime.getId());
       try
       {
-         URL url = getPropertiesURL(deploymentType.name().toLowerCase(), mission.getId(), runtime.getId());
-         if (url != null)
-            props.load(url.openStream());
+         return resources.getRuntimeProperties(path);
       }
-      catch (IOException io)
+      catch (UncheckedIOException e)
       {
-         // Do nothing
+         log.log(Level.WARNING, "Error while reading " + path, e);
+         return Collections.emptyMap();
       }
-      Map<String, String> map = (Map) props;
-      return map;
    }
 
    public String processTemplate(String template, Map<String, String> values)
    {
-      StrSubstitutor strSubstitutor = new StrSubstitutor(values);
-      strSubstitutor.setEnableSubstitutionInVariables(true);
-      return strSubstitutor.replace(template);
+      return processTemplate(ReadmeTemplate.compile(template), values);
+   }
+
+   public String processTemplate(ReadmeTemplate template, Map<String, String> values)
+   {
+      long start = System.nanoTime();
+      String result = template.render(values);
+      renderTimer.recordSince(start);
+      return result;
    }
 
-   private String loadContents(URL url) throws IOException
+   /**
+    * Writes the processed template to the given writer, without building it in memory
+    */
+   public void processTemplate(String template, Map<String, String> values, Writer out) throws IOException
    {
-      try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream())))
+      processTemplate(ReadmeTemplate.compile(template), values, out);
+   }
+
+   /**
+    * Writes the processed template to the given writer, without building it in memory
+    */
+   public void processTemplate(ReadmeTemplate template, Map<String, String> values, Writer out) throws IOException
+   {
+      long start = System.nanoTime();
+      template.render(values, out);
+      renderTimer.recordSince(start);
+   }
+
+   private ReadmeResources loadResources()
+   {
+      if (directory != null)
+      {
+         try
+         {
+            return ReadmeResources.fromDirectory(directory);
+         }
+         catch (IOException e)
+         {
+            log.log(Level.SEVERE, "Error while reading the readme directory " + directory
+                     + ", using the bundled readme templates", e);
+         }
+      }
+      return ReadmeResources.fromClassLoader(getClass().getClassLoader());
+   }
+
+   /**
+    * Reloads the contents when the readme directory changes, in a daemon thread. Its parent directory is watched too,
+    * so the directory is watched again when it is deleted and created again (eg. by a git checkout)
+    */
+   private void watch()
+   {
+      Path parent = directory.toAbsolutePath().getParent();
+      Path name = directory.toAbsolutePath().getFileName();
+      try
+      {
+         watchService = FileSystems.getDefault().newWatchService();
+         if (parent != null)
+         {
+            parent.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE);
+         }
+      }
+      catch (IOException e)
       {
-         StringWriter writer = new StringWriter();
-         char[] buffer = new char[1024];
-         int c;
-         while ((c = reader.read(buffer)) != -1)
+         log.log(Level.WARNING, "Cannot watch the readme directory " + directory + ", changes will not be reloaded", e);
+         return;
+      }
+      directoryKey = registerDirectory();
+      Thread thread = new Thread(() -> {
+         try
+         {
+            while (true)
+            {
+               WatchKey key = watchService.take();
+               Thread.sleep(RELOAD_DELAY_MILLIS);
+               boolean changed = false;
+               // Coalesce the events received in the meantime
+               for (; key != null; key = watchService.poll())
+               {
+                  for (WatchEvent<?> event : key.pollEvents())
+                  {
+                     changed |= key == directoryKey || name.equals(event.context());
+                  }
+                  // The key of a deleted directory is signalled without events, and cannot be reset
+                  changed |= !key.reset() && key == directoryKey;
+               }
+               if (directoryKey == null || !directoryKey.isValid())
+               {
+                  directoryKey = registerDirectory();
+               }
+               if (changed)
+               {
+                  reload();
+               }
+            }
+         }
+         catch (InterruptedException | ClosedWatchServiceException e)
          {
-            writer.write(buffer, 0, c);
+            // Shutting down
          }
-         return writer.toString();
+      }, "readme-directory-watcher");
+      thread.setDaemon(true);
+      thread.start();
+   }
+
+   /**
+    * @return the key watching the contents of the readme directory, <code>null</code> if it cannot be watched (eg. it
+    *         does not exist at the moment)
+    */
+   private WatchKey registerDirectory()
+   {
+      try
+      {
+         return directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                  StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+      }
+      catch (NoSuchFileException e)
+      {
+         return null;
       }
+      catch (IOException e)
+      {
+         log.log(Level.WARNING, "Cannot watch the readme directory " + directory + ", waiting for it to be replaced",
+                  e);
+         return null;
+      }
+   }
+
+   private Executor executor()
+   {
+      return async != null ? async : ForkJoinPool.commonPool();
    }
 
+   private static Path getDirectory()
+   {
+      String directory = getEnvVarOrSysProp(LAUNCHPAD_README_DIRECTORY, null);
+      return directory == null ? null : Paths.get(directory);
+   }
+
+   private static String getEnvVarOrSysProp(String name, String defaultValue)
+   {
+      return System.getProperty(name, System.getenv().getOrDefault(name, defaultValue));
+   }
 }
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A snapshot of the readme templates and runtime properties, read from the classpath or from a directory. Each
+ * resource is read at most once; a new snapshot is created to pick up changes.
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+final class ReadmeResources
+{
+   static final String README_PATH = "readme/";
+   static final String README_TEMPLATE_SUFFIX = "-README.adoc";
+
+   /**
+    * Lists the readme resources, one path per line. Generated by add-template-files.sh
+    */
+   private static final String README_INDEX_PATH = README_PATH + "index.txt";
+
+   private static final Logger log = Logger.getLogger(ReadmeResources.class.getName());
+
+   private final Function<String, URL> resolver;
+
+   /**
+    * The paths of the existing readme resources, <code>null</code> if they are not known
+    */
+   private final Set<String> index;
+
+   /**
+    * The parsed templates by name, including the missing ones
+    */
+   private final Map<String, Optional<ReadmeTemplate>> templates = new ConcurrentHashMap<>();
+
+   /**
+    * The immutable runtime properties by path, including the missing ones
+    */
+   private final Map<String, Map<String, String>> runtimeProperties = new ConcurrentHashMap<>();
+
+   private ReadmeResources(Function<String, URL> resolver, Set<String> index)
+   {
+      this.resolver = resolver;
+      this.index = index;
+   }
+
+   /**
+    * Reads the resources bundled under <code>readme/</code> in the given class loader
+    */
+   static ReadmeResources fromClassLoader(ClassLoader classLoader)
+   {
+      return new ReadmeResources(classLoader::getResource, loadIndex(classLoader.getResource(README_INDEX_PATH)));
+   }
+
+   /**
+    * Reads the resources from the given directory, eg. the <code>docs/topics/readme</code> directory of a checkout of
+    * appdev-documentation
+    */
+   static ReadmeResources fromDirectory(Path directory) throws IOException
+   {
+      Set<String> index;
+      try (Stream<Path> files = Files.list(directory))
+      {
+         index = Collections.unmodifiableSet(files
+                  .filter(Files::isRegularFile)
+                  .map(file -> README_PATH + file.getFileName())
+                  .collect(Collectors.toSet()));
+      }
+      return new ReadmeResources(path -> {
+         try
+         {
+            return directory.resolve(path.substring(README_PATH.length())).toUri().toURL();
+         }
+         catch (MalformedURLException e)
+         {
+            throw new IllegalArgumentException(e);
+         }
+      }, index);
+   }
+
+   private static Set<String> loadIndex(URL url)
+   {
+      if (url == null)
+      {
+         log.fine("No readme index found, looking up each readme resource");
+         return null;
+      }
+      try (BufferedReader reader = new BufferedReader(
+               new InputStreamReader(url.openStream(), StandardCharsets.UTF_8)))
+      {
+         return Collections.unmodifiableSet(reader.lines()
+                  .map(String::trim)
+                  .filter(line -> !line.isEmpty())
+                  .collect(Collectors.toSet()));
+      }
+      catch (IOException | UncheckedIOException e)
+      {
+         log.log(Level.WARNING, "Error while reading the readme index, looking up each readme resource", e);
+         return null;
+      }
+   }
+
+   /**
+    * @return the given resource, if the index says it exists
+    */
+   URL getResource(String path)
+   {
+      if (index != null && !index.contains(path))
+      {
+         return null;
+      }
+      return resolver.apply(path);
+   }
+
+   /**
+    * @return the parsed template with the given name, <code>null</code> if there is none
+    */
+   ReadmeTemplate getTemplate(String name) throws IOException
+   {
+      Optional<ReadmeTemplate> template = templates.get(name);
+      if (template == null)
+      {
+         URL url = getResource(README_PATH + name + README_TEMPLATE_SUFFIX);
+         template = url == null ? Optional.empty() : Optional.of(ReadmeTemplate.compile(loadContents(url)));
+         Optional<ReadmeTemplate> existing = templates.putIfAbsent(name, template);
+         if (existing != null)
+         {
+            template = existing;
+         }
+      }
+      return template.orElse(null);
+   }
+
+   /**
+    * @return the immutable runtime properties at the given path, empty if there are none
+    * @throws UncheckedIOException if the properties could not be read, in which case they are not cached
+    */
+   Map<String, String> getRuntimeProperties(String path)
+   {
+      return runtimeProperties.computeIfAbsent(path, p -> {
+         URL url = getResource(p);
+         if (url == null)
+         {
+            return Collections.emptyMap();
+         }
+         Properties props = new Properties();
+         try (InputStream in = url.openStream())
+         {
+            props.load(in);
+         }
+         catch (IOException e)
+         {
+            throw new UncheckedIOException(e);
+         }
+         Map<String, String> map = new HashMap<>();
+         props.forEach((key, value) -> map.put((String) key, (String) value));
+         return Collections.unmodifiableMap(map);
+      });
+   }
+
+   /**
+    * Loads all the indexed templates and runtime properties in parallel
+    *
+    * @return completes when they are all loaded, exceptionally if any of them could not be loaded
+    */
+   CompletableFuture<Void> warmUp(Executor executor)
+   {
+      if (index == null)
+      {
+         return CompletableFuture.completedFuture(null);
+      }
+      return CompletableFuture.allOf(index.stream()
+               .map(path -> CompletableFuture.runAsync(() -> preload(path), executor))
+               .toArray(CompletableFuture[]::new));
+   }
+
+   private void preload(String path)
+   {
+      try
+      {
+         if (path.endsWith(README_TEMPLATE_SUFFIX))
+         {
+            getTemplate(path.substring(README_PATH.length(), path.length() - README_TEMPLATE_SUFFIX.length()));
+         }
+         else if (path.endsWith(".properties"))
+         {
+            getRuntimeProperties(path);
+         }
+      }
+      catch (IOException e)
+      {
+         throw new UncheckedIOException("Error while loading " + path, e);
+      }
+   }
+
+   private static String loadContents(URL url) throws IOException
+   {
+      try (BufferedReader reader = new BufferedReader(
+               new InputStreamReader(url.openStream(), StandardCharsets.UTF_8)))
+      {
+         StringWriter writer = new StringWriter();
+         char[] buffer = new char[8192];
+         int c;
+         while ((c = reader.read(buffer)) != -1)
+         {
+            writer.write(buffer, 0, c);
+         }
+         return writer.toString();
+      }
+   }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A README template parsed once into literal chunks and variable slots, so it can be rendered many times in a single
+ * pass.
+ * <p>
+ * Rendering follows the rules of a {@link org.apache.commons.lang3.text.StrSubstitutor} with substitution in variable
+ * names enabled: <code>${name}</code> is replaced by its value, which is itself rendered, <code>${name:-default}</code>
+ * falls back to the default value, <code>$${name}</code> escapes the variable, variable names may contain variables and
+ * unknown variables are left untouched. Unlike a <code>StrSubstitutor</code>, a value ending with <code>$</code> does
+ * not escape a variable following it.
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+public final class ReadmeTemplate
+{
+   private static final String PREFIX = "${";
+   private static final char SUFFIX = '}';
+   private static final char ESCAPE = '$';
+   private static final String DEFAULT_DELIMITER = ":-";
+
+   private final String text;
+   private final Segment[] segments;
+
+   /**
+    * The expected length of a rendered template, assuming each variable is replaced by a short value
+    */
+   private final int expectedLength;
+
+   private ReadmeTemplate(String text, Segment[] segments)
+   {
+      this.text = text;
+      this.segments = segments;
+      int length = 0;
+      for (Segment segment : segments)
+      {
+         length += segment instanceof Literal ? ((Literal) segment).text.length() : 32;
+      }
+      this.expectedLength = length;
+   }
+
+   /**
+    * Parses the given template
+    */
+   public static ReadmeTemplate compile(String text)
+   {
+      List<Segment> segments = new ArrayList<>();
+      StringBuilder literal = new StringBuilder();
+      int length = text.length();
+      int pos = 0;
+      while (pos < length)
+      {
+         if (!text.startsWith(PREFIX, pos))
+         {
+            literal.append(text.charAt(pos++));
+         }
+         else if (pos > 0 && text.charAt(pos - 1) == ESCAPE)
+         {
+            // The escape character was already copied, keep it as the start of a literal "${"
+            pos++;
+         }
+         else
+         {
+            int end = findSuffix(text, pos + PREFIX.length());
+            if (end < 0)
+            {
+               // Unterminated variable, the rest of the text is left as is
+               literal.append(text, pos, length);
+               break;
+            }
+            if (literal.length() > 0)
+            {
+               segments.add(new Literal(literal.toString()));
+               literal.setLength(0);
+            }
+            segments.add(new Variable(text.substring(pos, end + 1)));
+            pos = end + 1;
+         }
+      }
+      if (literal.length() > 0)
+      {
+         segments.add(new Literal(literal.toString()));
+      }
+      return new ReadmeTemplate(text, segments.toArray(new Segment[segments.size()]));
+   }
+
+   /**
+    * @return the index of the suffix closing the variable whose name starts at the given index, or -1
+    */
+   private static int findSuffix(String text, int from)
+   {
+      int nested = 0;
+      int pos = from;
+      while (pos < text.length())
+      {
+         if (text.startsWith(PREFIX, pos))
+         {
+            nested++;
+            pos += PREFIX.length();
+         }
+         else if (text.charAt(pos) == SUFFIX)
+         {
+            if (nested == 0)
+            {
+               return pos;
+            }
+            nested--;
+            pos++;
+         }
+         else
+         {
+            pos++;
+         }
+      }
+      return -1;
+   }
+
+   /**
+    * @return the unprocessed template
+    */
+   public String getText()
+   {
+      return text;
+   }
+
+   /**
+    * @return this template with its variables replaced by the given values
+    * @throws IllegalStateException if a variable refers to itself
+    */
+   public String render(Map<String, String> values)
+   {
+      StringBuilder out = new StringBuilder(expectedLength);
+      try
+      {
+         render(values, out, new ArrayList<>());
+      }
+      catch (IOException e)
+      {
+         // Never thrown by a StringBuilder
+         throw new UncheckedIOException(e);
+      }
+      return out.toString();
+   }
+
+   /**
+    * Writes this template with its variables replaced by the given values, chunk by chunk, without building the
+    * rendered text in memory
+    * 
+    * @throws IllegalStateException if a variable refers to itself
+    */
+   public void render(Map<String, String> values, Writer out) throws IOException
+   {
+      render(values, out, new ArrayList<>());
+   }
+
+   private void render(Map<String, String> values, Appendable out, List<String> resolving) throws IOException
+   {
+      for (Segment segment : segments)
+      {
+         segment.render(values, out, resolving);
+      }
+   }
+
+   private interface Segment
+   {
+      void render(Map<String, String> values, Appendable out, List<String> resolving) throws IOException;
+   }
+
+   private static final class Literal implements Segment
+   {
+      private final String text;
+
+      Literal(String text)
+      {
+         this.text = text;
+      }
+
+      @Override
+      public void render(Map<String, String> values, Appendable out, List<String> resolving) throws IOException
+      {
+         out.append(text);
+      }
+   }
+
+   private static final class Variable implements Segment
+   {
+      /**
+       * The variable as written in the template, including the prefix and suffix
+       */
+      private final String source;
+
+      /**
+       * The name expression, when it contains variables
+       */
+      private final ReadmeTemplate nameTemplate;
+
+      private final String name;
+      private final String defaultValue;
+
+      Variable(String source)
+      {
+         this.source = source;
+         String expression = source.substring(PREFIX.length(), source.length() - 1);
+         if (expression.contains(PREFIX))
+         {
+            this.nameTemplate = compile(expression);
+            this.name = null;
+            this.defaultValue = null;
+         }
+         else
+         {
+            this.nameTemplate = null;
+            int delimiter = expression.indexOf(DEFAULT_DELIMITER);
+            this.name = delimiter < 0 ? expression : expression.substring(0, delimiter);
+            this.defaultValue = delimiter < 0 ? null : expression.substring(delimiter + DEFAULT_DELIMITER.length());
+         }
+      }
+
+      @Override
+      public void render(Map<String, String> values, Appendable out, List<String> resolving) throws IOException
+      {
+         String varName = name;
+         String varDefault = defaultValue;
+         if (nameTemplate != null)
+         {
+            StringBuilder expression = new StringBuilder();
+            nameTemplate.render(values, expression, new ArrayList<>());
+            int delimiter = expression.indexOf(DEFAULT_DELIMITER);
+            varName = delimiter < 0 ? expression.toString() : expression.substring(0, delimiter);
+            varDefault = delimiter < 0 ? null : expression.substring(delimiter + DEFAULT_DELIMITER.length());
+         }
+         if (resolving.contains(varName))
+         {
+            throw new IllegalStateException("Infinite loop in property interpolation of " + source + ": "
+                     + String.join("->", resolving) + "->" + varName);
+         }
+         String value = values.get(varName);
+         if (value == null)
+         {
+            value = varDefault;
+         }
+         if (value == null)
+         {
+            out.append(source);
+         }
+         else if (value.contains(PREFIX))
+         {
+            resolving.add(varName);
+            compile(value).render(values, out, resolving);
+            resolving.remove(resolving.size() - 1);
+         }
+         else
+         {
+            out.append(value);
+         }
+      }
+   }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+
+/**
+ * Creates long-lived JAX-RS clients with a bounded connection pool and connect/read timeouts.
+ * <p>
+ * JAX-RS 2.0 has no portable API for pooling or timeouts, so the provider specific settings are applied when
+ * available: the RESTEasy builder methods (the provider shipped with Forge) and the Jersey/CXF properties.
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+final class RestClients
+{
+   private static final Logger log = Logger.getLogger(RestClients.class.getName());
+
+   /**
+    * The settings are applied the same way to every client, so a failure is only reported for the first one
+    */
+   private static final AtomicBoolean warned = new AtomicBoolean();
+
+   private RestClients()
+   {
+   }
+
+   /**
+    * @param poolSize the maximum number of pooled connections
+    * @param connectTimeoutMillis the connect timeout
+    * @param readTimeoutMillis the read (socket) timeout
+    * @param keepAliveMillis the time a pooled connection is kept open
+    * @return a thread-safe client that must be closed when no longer used
+    */
+   static Client newPooledClient(int poolSize, long connectTimeoutMillis, long readTimeoutMillis,
+            long keepAliveMillis)
+   {
+      ClientBuilder builder = ClientBuilder.newBuilder();
+      // RESTEasy
+      invoke(builder, "connectionPoolSize", poolSize);
+      invoke(builder, "maxPooledPerRoute", poolSize);
+      invoke(builder, "establishConnectionTimeout", connectTimeoutMillis, TimeUnit.MILLISECONDS);
+      invoke(builder, "socketTimeout", readTimeoutMillis, TimeUnit.MILLISECONDS);
+      invoke(builder, "connectionTTL", keepAliveMillis, TimeUnit.MILLISECONDS);
+      // Jersey
+      builder.property("jersey.config.client.connectTimeout", (int) connectTimeoutMillis);
+      builder.property("jersey.config.client.readTimeout", (int) readTimeoutMillis);
+      // CXF
+      builder.property("http.connection.timeout", connectTimeoutMillis);
+      builder.property("http.receive.timeout", readTimeoutMillis);
+      return builder.build();
+   }
+
+   private static void invoke(ClientBuilder builder, String methodName, Object... args)
+   {
+      for (Method method : builder.getClass().getMethods())
+      {
+         if (method.getName().equals(methodName) && method.getParameterCount() == args.length)
+         {
+            try
+            {
+               method.invoke(builder, args);
+            }
+            catch (ReflectiveOperationException | IllegalArgumentException e)
+            {
+               if (warned.compareAndSet(false, true))
+               {
+                  log.log(Level.WARNING, "Could not set " + methodName + " on " + builder.getClass().getName()
+                           + ", connection pool and timeout settings may not be applied", e);
+               }
+            }
+            return;
+         }
+      }
+   }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+
+/**
+ * Bounded retries with exponential backoff and full jitter, for idempotent requests only.
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+final class RetryPolicy
+{
+   private final int maxAttempts;
+   private final long baseDelayMillis;
+   private final long maxDelayMillis;
+
+   /**
+    * @param maxAttempts the maximum number of attempts, including the first one
+    * @param baseDelayMillis the upper bound of the delay before the first retry, doubled for each retry
+    * @param maxDelayMillis the upper bound of any delay
+    */
+   RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis)
+   {
+      this.maxAttempts = Math.max(1, maxAttempts);
+      this.baseDelayMillis = Math.max(0, baseDelayMillis);
+      this.maxDelayMillis = Math.max(this.baseDelayMillis, maxDelayMillis);
+   }
+
+   /**
+    * @param attempt the number of the attempt that just failed, starting at 1
+    * @return <code>true</code> if another attempt should be made after the given failure
+    */
+   boolean shouldRetry(int attempt, Throwable failure)
+   {
+      return attempt < maxAttempts && isTransient(failure);
+   }
+
+   /**
+    * @param attempt the number of the attempt that just failed, starting at 1
+    * @return a random delay between zero and the exponential backoff for the given attempt
+    */
+   long delayMillis(int attempt)
+   {
+      long backoff = baseDelayMillis << Math.min(attempt - 1, 20);
+      long bound = Math.min(maxDelayMillis, backoff);
+      return bound <= 0 ? 0 : ThreadLocalRandom.current().nextLong(bound + 1);
+   }
+
+   /**
+    * @return <code>true</code> for connection failures, read timeouts and server errors
+    */
+   static boolean isTransient(Throwable failure)
+   {
+      if (failure instanceof WebApplicationException)
+      {
+         Response response = ((WebApplicationException) failure).getResponse();
+         return response != null && response.getStatus() >= 500;
+      }
+      Throwable root = failure;
+      while (root.getCause() != null)
+      {
+         root = root.getCause();
+      }
+      return root instanceof SocketTimeoutException || CircuitBreaker.isConnectionFailure(failure);
+   }
+}
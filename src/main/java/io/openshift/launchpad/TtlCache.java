@@ -0,0 +1,164 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A concurrent cache whose entries expire a fixed time after being loaded. Concurrent callers for the same missing key
+ * wait for a single load instead of all loading it.
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+class TtlCache<K, V>
+{
+   private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+   private final long ttlNanos;
+   private final int maxSize;
+
+   /**
+    * @param ttlMillis the time an entry is kept after being loaded. Zero or less disables the cache
+    * @param maxSize the maximum number of entries
+    */
+   TtlCache(long ttlMillis, int maxSize)
+   {
+      this.ttlNanos = ttlMillis * 1_000_000;
+      this.maxSize = maxSize;
+   }
+
+   /**
+    * @param loader loads the value if it is not cached or expired
+    * @param cacheable returns <code>true</code> if the loaded value may be kept, eg. it is not an error
+    * @return the cached or loaded value
+    */
+   V get(K key, Supplier<V> loader, Predicate<V> cacheable)
+   {
+      if (ttlNanos <= 0)
+      {
+         return loader.get();
+      }
+      while (true)
+      {
+         Entry<V> entry = entries.get(key);
+         if (entry != null && !entry.isExpired(System.nanoTime()))
+         {
+            return await(entry.value);
+         }
+         Entry<V> newEntry = new Entry<>();
+         boolean won = entry == null ? entries.putIfAbsent(key, newEntry) == null
+                  : entries.replace(key, entry, newEntry);
+         if (!won)
+         {
+            // Another caller is loading it
+            continue;
+         }
+         V value;
+         try
+         {
+            value = loader.get();
+         }
+         catch (RuntimeException | Error e)
+         {
+            entries.remove(key, newEntry);
+            newEntry.value.completeExceptionally(e);
+            throw e;
+         }
+         if (cacheable.test(value))
+         {
+            newEntry.expiresAt = System.nanoTime() + ttlNanos;
+            if (entries.size() > maxSize)
+            {
+               purge();
+            }
+         }
+         else
+         {
+            entries.remove(key, newEntry);
+         }
+         newEntry.value.complete(value);
+         return value;
+      }
+   }
+
+   /**
+    * @return the cached value, or <code>null</code> if it is not cached, expired or still loading
+    */
+   V getIfPresent(K key)
+   {
+      Entry<V> entry = entries.get(key);
+      if (entry == null || entry.expiresAt == Long.MAX_VALUE || entry.isExpired(System.nanoTime()))
+      {
+         return null;
+      }
+      return entry.value.getNow(null);
+   }
+
+   void invalidateAll()
+   {
+      entries.clear();
+   }
+
+   int size()
+   {
+      return entries.size();
+   }
+
+   /**
+    * Removes the expired entries, then the ones expiring first until the size bound is honored
+    */
+   private synchronized void purge()
+   {
+      long now = System.nanoTime();
+      entries.values().removeIf(entry -> entry.isExpired(now));
+      Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().stream()
+               .sorted((a, b) -> Long.compare(a.getValue().expiresAt, b.getValue().expiresAt)).iterator();
+      while (entries.size() > maxSize && it.hasNext())
+      {
+         Map.Entry<K, Entry<V>> e = it.next();
+         entries.remove(e.getKey(), e.getValue());
+      }
+   }
+
+   private static <V> V await(CompletableFuture<V> future)
+   {
+      try
+      {
+         return future.join();
+      }
+      catch (CompletionException e)
+      {
+         if (e.getCause() instanceof RuntimeException)
+         {
+            throw (RuntimeException) e.getCause();
+         }
+         throw e;
+      }
+   }
+
+   private static class Entry<V>
+   {
+      private final CompletableFuture<V> value = new CompletableFuture<>();
+
+      /**
+       * {@link Long#MAX_VALUE} while loading
+       */
+      private volatile long expiresAt = Long.MAX_VALUE;
+
+      boolean isExpired(long now)
+      {
+         return expiresAt != Long.MAX_VALUE && now - expiresAt > 0;
+      }
+   }
+}
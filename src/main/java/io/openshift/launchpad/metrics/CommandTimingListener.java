@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad.metrics;
+
+import java.util.Map;
+
+import javax.inject.Singleton;
+
+import org.jboss.forge.addon.ui.command.CommandExecutionListener;
+import org.jboss.forge.addon.ui.command.UICommand;
+import org.jboss.forge.addon.ui.context.UIExecutionContext;
+import org.jboss.forge.addon.ui.result.Result;
+
+/**
+ * Times the execution of each command and wizard step of this addon
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+@Singleton
+public class CommandTimingListener implements CommandExecutionListener
+{
+   private static final String PACKAGE_PREFIX = "io.openshift.launchpad.";
+
+   @Override
+   public void preCommandExecuted(UICommand command, UIExecutionContext context)
+   {
+      if (isTimed(command))
+      {
+         context.getUIContext().getAttributeMap().put(new StartKey(command), System.nanoTime());
+      }
+   }
+
+   @Override
+   public void postCommandExecuted(UICommand command, UIExecutionContext context, Result result)
+   {
+      record(command, context, "success");
+   }
+
+   @Override
+   public void postCommandFailure(UICommand command, UIExecutionContext context, Throwable failure)
+   {
+      record(command, context, "failure");
+   }
+
+   private void record(UICommand command, UIExecutionContext context, String outcome)
+   {
+      if (isTimed(command))
+      {
+         Map<Object, Object> attributeMap = context.getUIContext().getAttributeMap();
+         Long start = (Long) attributeMap.remove(new StartKey(command));
+         if (start != null)
+         {
+            Metrics.timer("wizard.step", "step", stepName(command), "outcome", outcome)
+                     .recordSince(start);
+         }
+      }
+   }
+
+   /**
+    * @return the simple name of the command class, without any proxy suffix
+    */
+   private static String stepName(UICommand command)
+   {
+      String name = command.getClass().getSimpleName();
+      int idx = name.indexOf('$');
+      return idx > 0 ? name.substring(0, idx) : name;
+   }
+
+   private static boolean isTimed(UICommand command)
+   {
+      return command.getClass().getName().startsWith(PACKAGE_PREFIX);
+   }
+
+   /**
+    * Keys the start time by command instance, so nested steps do not overwrite each other
+    */
+   private static final class StartKey
+   {
+      private final UICommand command;
+
+      StartKey(UICommand command)
+      {
+         this.command = command;
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return System.identityHashCode(command);
+      }
+
+      @Override
+      public boolean equals(Object obj)
+      {
+         return obj instanceof StartKey && ((StartKey) obj).command == command;
+      }
+   }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+/**
+ * Publishes the metrics as MXBeans in the platform {@link MBeanServer}, under the
+ * <code>io.openshift.launchpad</code> domain
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+public class JmxMetricsRegistry implements MetricsRegistry
+{
+   private static final Logger log = Logger.getLogger(JmxMetricsRegistry.class.getName());
+
+   private static final String DOMAIN = "io.openshift.launchpad";
+
+   private final MBeanServer server;
+   private final Map<ObjectName, JmxTimer> timers = new ConcurrentHashMap<>();
+
+   public JmxMetricsRegistry()
+   {
+      this(ManagementFactory.getPlatformMBeanServer());
+   }
+
+   public JmxMetricsRegistry(MBeanServer server)
+   {
+      this.server = server;
+   }
+
+   @Override
+   public Timer timer(String name, String... tags)
+   {
+      return timers.computeIfAbsent(objectName("Timer", name, tags), objectName -> {
+         JmxTimer timer = new JmxTimer();
+         register(objectName, timer, false);
+         return timer;
+      });
+   }
+
+   @Override
+   public void gauge(String name, Supplier<? extends Number> value, String... tags)
+   {
+      GaugeMXBean gauge = () -> {
+         Number number = value.get();
+         return number == null ? Double.NaN : number.doubleValue();
+      };
+      register(objectName("Gauge", name, tags), gauge, true);
+   }
+
+   @Override
+   public void remove(String name, String... tags)
+   {
+      ObjectName timerName = objectName("Timer", name, tags);
+      timers.remove(timerName);
+      unregister(timerName);
+      unregister(objectName("Gauge", name, tags));
+   }
+
+   private void register(ObjectName objectName, Object mbean, boolean replace)
+   {
+      try
+      {
+         try
+         {
+            server.registerMBean(mbean, objectName);
+         }
+         catch (InstanceAlreadyExistsException e)
+         {
+            if (!replace)
+            {
+               throw e;
+            }
+            server.unregisterMBean(objectName);
+            server.registerMBean(mbean, objectName);
+         }
+      }
+      catch (JMException e)
+      {
+         // Metrics must never break the addon
+         log.log(Level.FINE, "Could not register " + objectName, e);
+      }
+   }
+
+   private void unregister(ObjectName objectName)
+   {
+      try
+      {
+         if (server.isRegistered(objectName))
+         {
+            server.unregisterMBean(objectName);
+         }
+      }
+      catch (JMException e)
+      {
+         log.log(Level.FINE, "Could not unregister " + objectName, e);
+      }
+   }
+
+   static ObjectName objectName(String type, String name, String... tags)
+   {
+      if (tags.length % 2 != 0)
+      {
+         throw new IllegalArgumentException("Tags must be key/value pairs");
+      }
+      StringBuilder sb = new StringBuilder(DOMAIN).append(":type=").append(type)
+               .append(",name=").append(ObjectName.quote(name));
+      for (int i = 0; i < tags.length; i += 2)
+      {
+         sb.append(',').append(tags[i]).append('=').append(ObjectName.quote(String.valueOf(tags[i + 1])));
+      }
+      try
+      {
+         return new ObjectName(sb.toString());
+      }
+      catch (MalformedObjectNameException e)
+      {
+         throw new IllegalArgumentException(e);
+      }
+   }
+}
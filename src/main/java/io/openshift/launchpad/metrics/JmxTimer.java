@@ -0,0 +1,164 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link Timer} keeping a fixed-bucket histogram of the recorded durations
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+class JmxTimer implements Timer, TimerMXBean
+{
+   private static final long[] BUCKET_BOUNDS_MILLIS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 2_000, 5_000,
+            10_000, 30_000, 60_000, 120_000, Long.MAX_VALUE };
+
+   private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MILLIS.length];
+   private final LongAdder count = new LongAdder();
+   private final LongAdder totalNanos = new LongAdder();
+   private final AtomicLong maxNanos = new AtomicLong();
+
+   JmxTimer()
+   {
+      for (int i = 0; i < buckets.length; i++)
+      {
+         buckets[i] = new LongAdder();
+      }
+   }
+
+   @Override
+   public void record(long amount, TimeUnit unit)
+   {
+      long nanos = unit.toNanos(Math.max(amount, 0));
+      count.increment();
+      totalNanos.add(nanos);
+      maxNanos.accumulateAndGet(nanos, Math::max);
+      buckets[bucketOf(nanos)].increment();
+   }
+
+   @Override
+   public long getCount()
+   {
+      return count.sum();
+   }
+
+   @Override
+   public double getTotalTimeMillis()
+   {
+      return toMillis(totalNanos.sum());
+   }
+
+   @Override
+   public double getMeanMillis()
+   {
+      long n = count.sum();
+      return n == 0 ? 0 : toMillis(totalNanos.sum()) / n;
+   }
+
+   @Override
+   public double getMaxMillis()
+   {
+      return toMillis(maxNanos.get());
+   }
+
+   @Override
+   public double get50thPercentileMillis()
+   {
+      return percentile(0.50);
+   }
+
+   @Override
+   public double get95thPercentileMillis()
+   {
+      return percentile(0.95);
+   }
+
+   @Override
+   public double get99thPercentileMillis()
+   {
+      return percentile(0.99);
+   }
+
+   @Override
+   public long[] getBucketBoundsMillis()
+   {
+      return BUCKET_BOUNDS_MILLIS.clone();
+   }
+
+   @Override
+   public long[] getBucketCounts()
+   {
+      long[] counts = new long[buckets.length];
+      for (int i = 0; i < buckets.length; i++)
+      {
+         counts[i] = buckets[i].sum();
+      }
+      return counts;
+   }
+
+   @Override
+   public void reset()
+   {
+      count.reset();
+      totalNanos.reset();
+      maxNanos.set(0);
+      for (LongAdder bucket : buckets)
+      {
+         bucket.reset();
+      }
+   }
+
+   /**
+    * @return the given percentile, capped by the maximum recorded value
+    */
+   double percentile(double percentile)
+   {
+      long[] counts = getBucketCounts();
+      long total = 0;
+      for (long c : counts)
+      {
+         total += c;
+      }
+      if (total == 0)
+      {
+         return 0;
+      }
+      long rank = (long) Math.ceil(percentile * total);
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++)
+      {
+         seen += counts[i];
+         if (seen >= rank)
+         {
+            return Math.min(BUCKET_BOUNDS_MILLIS[i], getMaxMillis());
+         }
+      }
+      return getMaxMillis();
+   }
+
+   private static int bucketOf(long nanos)
+   {
+      long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+      for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length - 1; i++)
+      {
+         if (millis < BUCKET_BOUNDS_MILLIS[i])
+         {
+            return i;
+         }
+      }
+      return BUCKET_BOUNDS_MILLIS.length - 1;
+   }
+
+   private static double toMillis(long nanos)
+   {
+      return nanos / 1_000_000.0;
+   }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Entry point for the metrics of this addon. Metrics are published over JMX by default; another
+ * {@link MetricsRegistry} (eg. bridging to an external monitoring system) can be set with
+ * {@link #setRegistry(MetricsRegistry)}.
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+public final class Metrics
+{
+   private static volatile MetricsRegistry registry = new JmxMetricsRegistry();
+
+   private Metrics()
+   {
+   }
+
+   public static MetricsRegistry getRegistry()
+   {
+      return registry;
+   }
+
+   public static void setRegistry(MetricsRegistry registry)
+   {
+      Metrics.registry = registry;
+   }
+
+   /**
+    * @return a timer recording into the registry set when it records, so it can be kept in a field
+    */
+   public static Timer timer(String name, String... tags)
+   {
+      return new RegistryTimer(name, tags);
+   }
+
+   public static void gauge(String name, Supplier<? extends Number> value, String... tags)
+   {
+      registry.gauge(name, value, tags);
+   }
+
+   public static void remove(String name, String... tags)
+   {
+      registry.remove(name, tags);
+   }
+
+   /**
+    * Resolves the timer again whenever the registry has been replaced
+    */
+   private static final class RegistryTimer implements Timer
+   {
+      private final String name;
+      private final String[] tags;
+      private volatile Binding binding;
+
+      RegistryTimer(String name, String[] tags)
+      {
+         this.name = name;
+         this.tags = tags;
+      }
+
+      @Override
+      public void record(long amount, TimeUnit unit)
+      {
+         MetricsRegistry current = registry;
+         Binding binding = this.binding;
+         if (binding == null || binding.registry != current)
+         {
+            binding = new Binding(current, current.timer(name, tags));
+            this.binding = binding;
+         }
+         binding.timer.record(amount, unit);
+      }
+   }
+
+   private static final class Binding
+   {
+      final MetricsRegistry registry;
+      final Timer timer;
+
+      Binding(MetricsRegistry registry, Timer timer)
+      {
+         this.registry = registry;
+         this.timer = timer;
+      }
+   }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad.metrics;
+
+import java.util.function.Supplier;
+
+/**
+ * Creates and publishes the metrics of this addon. Tags are given as key/value pairs
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+public interface MetricsRegistry
+{
+   /**
+    * @return the timer with the given name and tags, created if needed
+    */
+   Timer timer(String name, String... tags);
+
+   /**
+    * Publishes a value sampled on demand, replacing any gauge with the same name and tags
+    */
+   void gauge(String name, Supplier<? extends Number> value, String... tags);
+
+   /**
+    * Unpublishes the timer and the gauge with the given name and tags, if any
+    */
+   void remove(String name, String... tags);
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Records the duration of an operation
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+public interface Timer
+{
+   void record(long amount, TimeUnit unit);
+
+   /**
+    * Records the time elapsed since the given {@link System#nanoTime()}
+    */
+   default void recordSince(long startNanos)
+   {
+      record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+   }
+
+   /**
+    * Runs the given operation and records its duration, even if it fails
+    */
+   default <T> T record(Supplier<T> operation)
+   {
+      long start = System.nanoTime();
+      try
+      {
+         return operation.get();
+      }
+      finally
+      {
+         recordSince(start);
+      }
+   }
+}
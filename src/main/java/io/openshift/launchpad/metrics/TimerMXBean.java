@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad.metrics;
+
+/**
+ * JMX view of a {@link Timer}. Percentiles are approximated by the upper bound of the histogram bucket they fall in
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+public interface TimerMXBean
+{
+   long getCount();
+
+   double getTotalTimeMillis();
+
+   double getMeanMillis();
+
+   double getMaxMillis();
+
+   double get50thPercentileMillis();
+
+   double get95thPercentileMillis();
+
+   double get99thPercentileMillis();
+
+   /**
+    * @return the upper bound of each histogram bucket, the last one being unbounded
+    */
+   long[] getBucketBoundsMillis();
+
+   long[] getBucketCounts();
+
+   /**
+    * Clears the recorded values, eg. to compare before and after a deployment
+    */
+   void reset();
+}
@@ -29,6 +29,7 @@ import org.jboss.forge.addon.ui.wizard.UIWizardStep;
 import io.openshift.booster.catalog.DeploymentType;
 import io.openshift.booster.catalog.Mission;
 import io.openshift.launchpad.BoosterCatalogFactory;
+import io.openshift.launchpad.LabelSet;
 
 /**
  *
@@ -56,11 +57,9 @@ public class ChooseMissionStep implements UIWizardStep
          mission.setItemLabelConverter(Mission::getId);
       }
       DeploymentType deploymentType = (DeploymentType) context.getAttributeMap().get(DeploymentType.class);
-      String[] filterLabels = catalogServiceFactory.getFilterLabels(context);
-      Set<Mission> missions = catalogServiceFactory.getCatalog(context).selector()
-              .deploymentType(deploymentType)
-              .labels(filterLabels)
-              .getMissions();
+      LabelSet filterLabels = catalogServiceFactory.getFilterLabels(context);
+      Set<Mission> missions = catalogServiceFactory.getCatalogIndex(context).getMissions(deploymentType,
+               filterLabels);
       mission.setValueChoices(missions);
       mission.setDefaultValue(() -> {
          Iterator<Mission> iterator = mission.getValueChoices().iterator();
@@ -32,6 +32,7 @@ import io.openshift.booster.catalog.DeploymentType;
 import io.openshift.booster.catalog.Mission;
 import io.openshift.booster.catalog.Runtime;
 import io.openshift.launchpad.BoosterCatalogFactory;
+import io.openshift.launchpad.LabelSet;
 
 /**
  *
@@ -62,12 +63,8 @@ public class ChooseRuntimeStep implements UIWizardStep
       runtime.setValueChoices(() -> {
          DeploymentType deploymentType = (DeploymentType) context.getAttributeMap().get(DeploymentType.class);
          Mission mission = (Mission) context.getAttributeMap().get(Mission.class);
-         String[] filterLabels = catalogServiceFactory.getFilterLabels(builder.getUIContext());
-         return catalogServiceFactory.getCatalog(context).selector()
-                 .deploymentType(deploymentType)
-                 .mission(mission)
-                 .labels(filterLabels)
-                 .getRuntimes();
+         LabelSet filterLabels = catalogServiceFactory.getFilterLabels(builder.getUIContext());
+         return catalogServiceFactory.getCatalogIndex(context).getRuntimes(deploymentType, mission, filterLabels);
       });
 
       runtime.setDefaultValue(() -> {
@@ -83,9 +80,9 @@ public class ChooseRuntimeStep implements UIWizardStep
    {
       UIContext uiContext = context.getUIContext();
       Mission mission = (Mission) uiContext.getAttributeMap().get(Mission.class);
-      String[] filterLabels = catalogServiceFactory.getFilterLabels(uiContext);
+      LabelSet filterLabels = catalogServiceFactory.getFilterLabels(uiContext);
 
-      Optional<Booster> booster = catalogServiceFactory.getCatalog(uiContext).getBooster(mission,
+      Optional<Booster> booster = catalogServiceFactory.getCatalogIndex(uiContext).getBooster(mission,
                runtime.getValue(), filterLabels);
       if (!booster.isPresent())
       {
@@ -7,8 +7,19 @@
 
 package io.openshift.launchpad.ui.booster;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -18,8 +29,14 @@ import org.jboss.forge.addon.ui.context.UIContext;
 import org.jboss.forge.addon.ui.context.UIValidationContext;
 
 import io.openshift.launchpad.MissionControl;
+import io.openshift.launchpad.MissionControlCheck;
 
 /**
+ * Validates the wizard inputs against Mission Control. The results are kept in the {@link UIContext}, so each check is
+ * performed at most once per wizard.
+ * <p>
+ * The <code>*Async</code> methods return immediately with the (possibly running) check, so independent checks can run
+ * in parallel. They must be called from the thread owning the {@link UIContext}.
  *
  * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
  */
@@ -27,53 +44,313 @@ import io.openshift.launchpad.MissionControl;
 @ApplicationScoped
 public class MissionControlValidator
 {
+   private static final String VALIDATION_TIMEOUT = "LAUNCHPAD_MISSIONCONTROL_VALIDATION_TIMEOUT_MILLIS";
+
+   private static final String GITHUB_TOKEN_KEY = "token_github_exists";
+   private static final String OPENSHIFT_TOKEN_KEY_PREFIX = "token_openshift_exists_";
+   private static final String CLUSTERS_KEY = "openShiftClusters";
+   private static final String REPOSITORY_KEY_PREFIX = "validate_repo_";
+   private static final String PROJECT_KEY_PREFIX = "validate_project_";
+   private static final String PREFETCHED_OPENSHIFT_TOKEN_KEY = "token_openshift_prefetched";
+
    @Inject
    private MissionControl missionControlFacade;
 
+   private final long validationTimeoutMillis = Long
+            .parseLong(getEnvVarOrSysProp(VALIDATION_TIMEOUT, "15000"));
+
+   /**
+    * Starts fetching the OpenShift clusters and checking the GitHub token and the OpenShift token of the default
+    * cluster, so these are resolved by the time the wizard steps need them. Like the other checks, they are kept in the
+    * context: the OpenShift token check is picked up by
+    * {@link #validateOpenShiftTokenExistsAsync(UIContext, String)} once asked for the default cluster
+    */
+   public void prefetch(UIContext context)
+   {
+      Map<Object, Object> attributeMap = context.getAttributeMap();
+      String authHeader = getAuthHeader(attributeMap);
+      if (authHeader == null)
+      {
+         return;
+      }
+      validateGitHubTokenExistsAsync(context);
+      // The default cluster is only known later, and this context must not be accessed from another thread
+      CompletableFuture<String> defaultCluster = getOpenShiftClustersAsync(context)
+               .thenApply(clusters -> clusters.isEmpty() ? null : clusters.get(0));
+      CompletableFuture<String> tokenCheck = defaultCluster.thenCompose(cluster -> cluster == null
+               ? CompletableFuture.<String> completedFuture(null)
+               : missionControlFacade.validateOpenShiftTokenExistsAsync(authHeader, cluster));
+      attributeMap.put(PREFETCHED_OPENSHIFT_TOKEN_KEY, new PrefetchedCheck(defaultCluster, tokenCheck));
+   }
+
    public List<String> getOpenShiftClusters(UIContext context)
+   {
+      CompletableFuture<List<String>> fetch = getOpenShiftClustersAsync(context);
+      List<String> clusters = fetch.join();
+      if (clusters.isEmpty())
+      {
+         // Empty lists are not kept, as they may be caused by a transient error
+         context.getAttributeMap().remove(CLUSTERS_KEY, fetch);
+      }
+      return clusters;
+   }
+
+   /**
+    * @return the OpenShift clusters the user is connected to, an empty list if they could not be fetched
+    */
+   public CompletableFuture<List<String>> getOpenShiftClustersAsync(UIContext context)
    {
       Map<Object, Object> attributeMap = context.getAttributeMap();
-      return (List<String>) attributeMap.computeIfAbsent("openShiftClusters", key -> {
-         List<String> authList = (List<String>) attributeMap.get(HttpHeaders.AUTHORIZATION);
-         String authHeader = (authList == null || authList.isEmpty()) ? null : authList.get(0);
-         return missionControlFacade.getOpenShiftClusters(authHeader);
+      return (CompletableFuture<List<String>>) attributeMap.computeIfAbsent(CLUSTERS_KEY, key -> {
+         String authHeader = getAuthHeader(attributeMap);
+         return missionControlFacade.getOpenShiftClustersAsync(authHeader).toCompletableFuture();
       });
    }
 
+   /**
+    * @return the OpenShift projects of the user in the given cluster. The list is shared by the wizards of the user
+    *         through the Mission Control cache, not kept in the context
+    */
    public List<String> getProjects(UIContext context, String cluster)
    {
-      Map<Object, Object> attributeMap = context.getAttributeMap();
-      return (List<String>) attributeMap.computeIfAbsent("projects", key -> {
-         List<String> authList = (List<String>) attributeMap.get(HttpHeaders.AUTHORIZATION);
-         String authHeader = (authList == null || authList.isEmpty()) ? null : authList.get(0);
-         return missionControlFacade.getProjects(authHeader, cluster);
-      });
+      return missionControlFacade.getProjects(getAuthHeader(context.getAttributeMap()), cluster);
+   }
+
+   /**
+    * Tells if the user has the given project in the given cluster. Unless the project list is already cached, only
+    * the response of Mission Control is scanned, so use this rather than looking the project up in
+    * {@link #getProjects(UIContext, String)}
+    */
+   public boolean projectExists(UIContext context, String cluster, String project)
+   {
+      return missionControlFacade.projectExists(getAuthHeader(context.getAttributeMap()), cluster, project);
+   }
+
+   /**
+    * @return the first projects of the user in the given cluster, in alphabetical order, starting with the given
+    *         prefix
+    */
+   public List<String> findProjects(UIContext context, String cluster, String prefix, int limit)
+   {
+      return missionControlFacade.findProjects(getAuthHeader(context.getAttributeMap()), cluster, prefix, limit);
    }
 
    public boolean validateGitHubTokenExists(UIValidationContext context)
+   {
+      return addValidationError(context, validateGitHubTokenExistsAsync(context.getUIContext()).join());
+   }
+
+   public boolean validateOpenShiftTokenExists(UIValidationContext context, String cluster)
+   {
+      return addValidationError(context,
+               validateOpenShiftTokenExistsAsync(context.getUIContext(), cluster).join());
+   }
+
+   public void validateGitHubRepositoryExists(UIValidationContext context, String repository)
+   {
+      addValidationError(context,
+               validateGitHubRepositoryExistsAsync(context.getUIContext(), repository, null).join());
+   }
+
+   public void validateOpenShiftProjectExists(UIValidationContext context, String project, String cluster)
+   {
+      addValidationWarning(context,
+               validateOpenShiftProjectExistsAsync(context.getUIContext(), project, cluster, null).join());
+   }
+
+   /**
+    * Validates the OpenShift token and project and the GitHub token and repository of a new project. If Mission Control
+    * supports it, all the checks are sent in a single batch request; only if it answers that it does not, the OpenShift
+    * and GitHub checks run in parallel, each project/repository check waiting only for its own token check. Both are
+    * bounded by the same validation timeout
+    */
+   public void validateNewProject(UIValidationContext context, String cluster, String project, String repository)
+   {
+      UIContext uiContext = context.getUIContext();
+      long deadline = System.currentTimeMillis() + validationTimeoutMillis;
+      if (!validateBatch(context, cluster, project, repository))
+      {
+         return;
+      }
+      CompletableFuture<String> openShiftToken = validateOpenShiftTokenExistsAsync(uiContext, cluster);
+      CompletableFuture<String> openShiftProject = validateOpenShiftProjectExistsAsync(uiContext, project, cluster,
+               openShiftToken);
+      CompletableFuture<String> gitHubToken = validateGitHubTokenExistsAsync(uiContext);
+      CompletableFuture<String> gitHubRepository = validateGitHubRepositoryExistsAsync(uiContext, repository,
+               gitHubToken);
+      if (await(context, deadline - System.currentTimeMillis(), openShiftProject, gitHubRepository))
+      {
+         addValidationError(context, openShiftToken.join());
+         addValidationWarning(context, openShiftProject.join());
+         addValidationError(context, gitHubToken.join());
+         addValidationError(context, gitHubRepository.join());
+      }
+   }
+
+   /**
+    * Performs the checks of {@link #validateNewProject(UIValidationContext, String, String, String)} that are not in
+    * the context yet (e.g. the token checks started by {@link #prefetch(UIContext)}) with a single request, and keeps
+    * their results in the context
+    *
+    * @return <code>false</code> if the batch request failed or timed out, a validation error being added to the
+    *         context. Otherwise the remaining checks are either in the context or must be performed one by one
+    */
+   private boolean validateBatch(UIValidationContext context, String cluster, String project, String repository)
    {
       Map<Object, Object> attributeMap = context.getUIContext().getAttributeMap();
-      String validationMessage = (String) attributeMap.computeIfAbsent("token_github_exists", key -> {
-         List<String> authList = (List<String>) attributeMap.get(HttpHeaders.AUTHORIZATION);
-         String authHeader = (authList == null || authList.isEmpty()) ? null : authList.get(0);
-         return missionControlFacade.validateGitHubTokenExists(authHeader);
-      });
-      if (validationMessage != null && !MissionControl.VALIDATION_MESSAGE_OK.equals(validationMessage))
+      List<String> keys = Arrays.asList(OPENSHIFT_TOKEN_KEY_PREFIX + cluster, PROJECT_KEY_PREFIX + project,
+               GITHUB_TOKEN_KEY, REPOSITORY_KEY_PREFIX + repository);
+      List<MissionControlCheck> checks = Arrays.asList(MissionControlCheck.openShiftTokenExists(cluster),
+               MissionControlCheck.openShiftProjectExists(project, cluster),
+               MissionControlCheck.gitHubTokenExists(),
+               MissionControlCheck.gitHubRepositoryExists(repository));
+      List<Integer> missing = new ArrayList<>();
+      for (int i = 0; i < keys.size(); i++)
+      {
+         if (!attributeMap.containsKey(keys.get(i)))
+         {
+            missing.add(i);
+         }
+      }
+      // A single check is sent on its own anyway
+      if (missing.size() < 2)
+      {
+         return true;
+      }
+      CompletableFuture<Optional<List<String>>> batch = missionControlFacade
+               .validateBatchAsync(getAuthHeader(attributeMap),
+                        missing.stream().map(checks::get).collect(Collectors.toList()))
+               .toCompletableFuture();
+      if (!await(context, batch))
       {
-         context.addValidationError(context.getCurrentInputComponent(), validationMessage);
          return false;
       }
+      Optional<List<String>> results = batch.join();
+      if (results.isPresent())
+      {
+         List<String> messages = results.get();
+         for (int i = 0; i < missing.size(); i++)
+         {
+            attributeMap.put(keys.get(missing.get(i)), CompletableFuture.completedFuture(messages.get(i)));
+         }
+         // Like the chained checks, a project or repository is not reported if its token is missing
+         if (missing.contains(1))
+         {
+            requireToken(attributeMap, keys.get(0), keys.get(1));
+         }
+         if (missing.contains(3))
+         {
+            requireToken(attributeMap, keys.get(2), keys.get(3));
+         }
+      }
       return true;
    }
 
-   public boolean validateOpenShiftTokenExists(UIValidationContext context, String cluster)
+   private static void requireToken(Map<Object, Object> attributeMap, String tokenKey, String key)
    {
-      Map<Object, Object> attributeMap = context.getUIContext().getAttributeMap();
-      String validationMessage = (String) attributeMap.computeIfAbsent("token_openshift_exists", key -> {
-         List<String> authList = (List<String>) attributeMap.get(HttpHeaders.AUTHORIZATION);
-         String authHeader = (authList == null || authList.isEmpty()) ? null : authList.get(0);
-         return missionControlFacade.validateOpenShiftTokenExists(authHeader, cluster);
+      CompletableFuture<String> tokenCheck = (CompletableFuture<String>) attributeMap.get(tokenKey);
+      CompletableFuture<String> check = (CompletableFuture<String>) attributeMap.get(key);
+      attributeMap.put(key, tokenCheck.thenCombine(check,
+               (token, message) -> MissionControl.VALIDATION_MESSAGE_OK.equals(token) ? message : null));
+   }
+
+   /**
+    * @return the validation message of the GitHub token check
+    */
+   public CompletableFuture<String> validateGitHubTokenExistsAsync(UIContext context)
+   {
+      Map<Object, Object> attributeMap = context.getAttributeMap();
+      String authHeader = getAuthHeader(attributeMap);
+      return check(attributeMap, GITHUB_TOKEN_KEY, null,
+               () -> missionControlFacade.validateGitHubTokenExistsAsync(authHeader));
+   }
+
+   /**
+    * @return the validation message of the OpenShift token check
+    */
+   public CompletableFuture<String> validateOpenShiftTokenExistsAsync(UIContext context, String cluster)
+   {
+      Map<Object, Object> attributeMap = context.getAttributeMap();
+      String authHeader = getAuthHeader(attributeMap);
+      PrefetchedCheck prefetched = (PrefetchedCheck) attributeMap.get(PREFETCHED_OPENSHIFT_TOKEN_KEY);
+      return check(attributeMap, OPENSHIFT_TOKEN_KEY_PREFIX + cluster, null, () -> {
+         if (prefetched == null)
+         {
+            return missionControlFacade.validateOpenShiftTokenExistsAsync(authHeader, cluster);
+         }
+         return prefetched.cluster.thenCompose(defaultCluster -> Objects.equals(cluster, defaultCluster)
+                  ? prefetched.check : missionControlFacade.validateOpenShiftTokenExistsAsync(authHeader, cluster));
       });
+   }
+
+   /**
+    * @param tokenCheck if not <code>null</code>, the repository is only checked once this check succeeds
+    * @return the validation message of the GitHub repository check, <code>null</code> if the token check failed
+    */
+   public CompletableFuture<String> validateGitHubRepositoryExistsAsync(UIContext context, String repository,
+            CompletableFuture<String> tokenCheck)
+   {
+      Map<Object, Object> attributeMap = context.getAttributeMap();
+      String authHeader = getAuthHeader(attributeMap);
+      return check(attributeMap, REPOSITORY_KEY_PREFIX + repository, tokenCheck,
+               () -> missionControlFacade.validateGitHubRepositoryExistsAsync(authHeader, repository));
+   }
+
+   /**
+    * @param tokenCheck if not <code>null</code>, the project is only checked once this check succeeds
+    * @return the validation message of the OpenShift project check, <code>null</code> if the token check failed
+    */
+   public CompletableFuture<String> validateOpenShiftProjectExistsAsync(UIContext context, String project,
+            String cluster, CompletableFuture<String> tokenCheck)
+   {
+      Map<Object, Object> attributeMap = context.getAttributeMap();
+      String authHeader = getAuthHeader(attributeMap);
+      return check(attributeMap, PROJECT_KEY_PREFIX + project, tokenCheck,
+               () -> missionControlFacade.validateOpenShiftProjectExistsAsync(authHeader, project, cluster));
+   }
+
+   /**
+    * Waits for the given checks, up to the configured validation timeout
+    *
+    * @return <code>true</code> if all the checks completed, otherwise a validation error is added to the context
+    */
+   public boolean await(UIValidationContext context, CompletableFuture<?>... checks)
+   {
+      return await(context, validationTimeoutMillis, checks);
+   }
+
+   private boolean await(UIValidationContext context, long timeoutMillis, CompletableFuture<?>... checks)
+   {
+      try
+      {
+         CompletableFuture.allOf(checks).get(timeoutMillis, TimeUnit.MILLISECONDS);
+         return true;
+      }
+      catch (TimeoutException e)
+      {
+         context.addValidationError(context.getCurrentInputComponent(),
+                  "Mission Control did not answer in time, please try again");
+      }
+      catch (ExecutionException e)
+      {
+         context.addValidationError(context.getCurrentInputComponent(),
+                  "Error while validating with Mission Control: " + e.getCause().getMessage());
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+      }
+      return false;
+   }
+
+   /**
+    * Adds the validation message as an error, unless it is <code>null</code> or
+    * {@link MissionControl#VALIDATION_MESSAGE_OK}
+    *
+    * @return <code>true</code> if no error was added
+    */
+   public boolean addValidationError(UIValidationContext context, String validationMessage)
+   {
       if (validationMessage != null && !MissionControl.VALIDATION_MESSAGE_OK.equals(validationMessage))
       {
          context.addValidationError(context.getCurrentInputComponent(), validationMessage);
@@ -82,31 +359,58 @@ public class MissionControlValidator
       return true;
    }
 
-   public void validateGitHubRepositoryExists(UIValidationContext context, String repository)
+   /**
+    * Adds the validation message as a warning, unless it is <code>null</code> or
+    * {@link MissionControl#VALIDATION_MESSAGE_OK}
+    */
+   public void addValidationWarning(UIValidationContext context, String validationMessage)
    {
-      Map<Object, Object> attributeMap = context.getUIContext().getAttributeMap();
-      String validationMessage = (String) attributeMap.computeIfAbsent("validate_repo_" + repository, key -> {
-         List<String> authList = (List<String>) attributeMap.get(HttpHeaders.AUTHORIZATION);
-         String authHeader = (authList == null || authList.isEmpty()) ? null : authList.get(0);
-         return missionControlFacade.validateGitHubRepositoryExists(authHeader, repository);
-      });
       if (validationMessage != null && !MissionControl.VALIDATION_MESSAGE_OK.equals(validationMessage))
       {
-         context.addValidationError(context.getCurrentInputComponent(), validationMessage);
+         context.addValidationWarning(context.getCurrentInputComponent(), validationMessage);
       }
    }
 
-   public void validateOpenShiftProjectExists(UIValidationContext context, String project, String cluster)
+   /**
+    * Starts the given check, unless it already ran for this context. The attribute map is only accessed from the
+    * calling thread
+    */
+   private CompletableFuture<String> check(Map<Object, Object> attributeMap, String key,
+            CompletableFuture<String> prerequisite, Supplier<CompletionStage<String>> validation)
    {
-      Map<Object, Object> attributeMap = context.getUIContext().getAttributeMap();
-      String validationMessage = (String) attributeMap.computeIfAbsent("validate_project_" + project, key -> {
-         List<String> authList = (List<String>) attributeMap.get(HttpHeaders.AUTHORIZATION);
-         String authHeader = (authList == null || authList.isEmpty()) ? null : authList.get(0);
-         return missionControlFacade.validateOpenShiftProjectExists(authHeader, project, cluster);
+      return (CompletableFuture<String>) attributeMap.computeIfAbsent(key, k -> {
+         if (prerequisite == null)
+         {
+            return validation.get().toCompletableFuture();
+         }
+         return prerequisite.thenCompose(message -> MissionControl.VALIDATION_MESSAGE_OK.equals(message)
+                  ? validation.get() : CompletableFuture.<String> completedFuture(null));
       });
-      if (validationMessage != null && !MissionControl.VALIDATION_MESSAGE_OK.equals(validationMessage))
+   }
+
+   private static String getAuthHeader(Map<Object, Object> attributeMap)
+   {
+      List<String> authList = (List<String>) attributeMap.get(HttpHeaders.AUTHORIZATION);
+      return (authList == null || authList.isEmpty()) ? null : authList.get(0);
+   }
+
+   private static String getEnvVarOrSysProp(String name, String defaultValue)
+   {
+      return System.getProperty(name, System.getenv().getOrDefault(name, defaultValue));
+   }
+
+   /**
+    * A check started by {@link MissionControlValidator#prefetch(UIContext)} for a cluster that is not known yet
+    */
+   private static final class PrefetchedCheck
+   {
+      private final CompletableFuture<String> cluster;
+      private final CompletableFuture<String> check;
+
+      PrefetchedCheck(CompletableFuture<String> cluster, CompletableFuture<String> check)
       {
-         context.addValidationWarning(context.getCurrentInputComponent(), validationMessage);
+         this.cluster = cluster;
+         this.check = check;
       }
    }
-}
\ No newline at end of file
+}
@@ -15,6 +15,9 @@
  */
 package io.openshift.launchpad.ui.booster;
 
+import javax.inject.Inject;
+
+import org.jboss.forge.addon.ui.context.UIBuilder;
 import org.jboss.forge.addon.ui.context.UIContext;
 import org.jboss.forge.addon.ui.context.UIExecutionContext;
 import org.jboss.forge.addon.ui.context.UINavigationContext;
@@ -34,6 +37,16 @@ import org.jboss.forge.addon.ui.wizard.UIWizard;
  */
 public class NewProjectWizard implements UIWizard
 {
+   @Inject
+   private MissionControlValidator missionControlValidator;
+
+   @Override
+   public void initializeUI(UIBuilder builder) throws Exception
+   {
+      // Ask Mission Control what the next steps need while the user fills the first one
+      missionControlValidator.prefetch(builder.getUIContext());
+   }
+
    @Override
    public UICommandMetadata getMetadata(UIContext context)
    {
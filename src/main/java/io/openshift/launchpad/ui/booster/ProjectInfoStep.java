@@ -9,7 +9,11 @@ package io.openshift.launchpad.ui.booster;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -55,7 +59,13 @@ import io.openshift.booster.catalog.Mission;
 import io.openshift.booster.catalog.Runtime;
 import io.openshift.booster.catalog.Version;
 import io.openshift.launchpad.BoosterCatalogFactory;
+import io.openshift.launchpad.BoosterCopier;
+import io.openshift.launchpad.CatalogQueryIndex;
+import io.openshift.launchpad.LabelSet;
 import io.openshift.launchpad.ReadmeProcessor;
+import io.openshift.launchpad.ReadmeTemplate;
+import io.openshift.launchpad.metrics.Metrics;
+import io.openshift.launchpad.metrics.Timer;
 import io.openshift.launchpad.ui.input.ProjectName;
 
 /**
@@ -66,6 +76,7 @@ public class ProjectInfoStep implements UIWizardStep
 {
    private static final Logger logger = Logger.getLogger(ProjectInfoStep.class.getName());
    private static final String RETRY_STEP = "RETRY_STEP";
+   private static final Timer COPY_TIMER = Metrics.timer("booster.copy");
 
    @Inject
    private BoosterCatalogFactory catalogFactory;
@@ -102,6 +113,9 @@ public class ProjectInfoStep implements UIWizardStep
    @Inject
    private ReadmeProcessor readmeProcessor;
 
+   @Inject
+   private BoosterCopier boosterCopier;
+
    @Override
    public void initializeUI(UIBuilder builder) throws Exception
    {
@@ -117,8 +131,8 @@ public class ProjectInfoStep implements UIWizardStep
       });
       if (mission != null && runtime != null)
       {
-         String[] filterLabels = catalogFactory.getFilterLabels(context);
-         Set<Version> versions = catalogFactory.getCatalog(context).getVersions(mission, runtime, filterLabels);
+         LabelSet filterLabels = catalogFactory.getFilterLabels(context);
+         Set<Version> versions = catalogFactory.getCatalogIndex(context).getVersions(mission, runtime, filterLabels);
          if (versions != null && !versions.isEmpty())
          {
             runtimeVersion.setValueChoices(versions);
@@ -175,15 +189,8 @@ public class ProjectInfoStep implements UIWizardStep
       if (deploymentType == DeploymentType.CD && (step == null || "0".equals(step.get(0))))
       {
          String openShiftCluster = (String) attributeMap.get("OPENSHIFT_CLUSTER");
-         if (missionControlValidator.validateOpenShiftTokenExists(context, openShiftCluster))
-         {
-            missionControlValidator.validateOpenShiftProjectExists(context, named.getValue(), openShiftCluster);
-         }
-         if (missionControlValidator.validateGitHubTokenExists(context))
-         {
-            String repository = getGithubRepositoryNameValue();
-            missionControlValidator.validateGitHubRepositoryExists(context, repository);
-         }
+         missionControlValidator.validateNewProject(context, openShiftCluster, named.getValue(),
+                  getGithubRepositoryNameValue());
       }
    }
 
@@ -201,6 +208,7 @@ public class ProjectInfoStep implements UIWizardStep
    {
       UIContext uiContext = context.getUIContext();
       BoosterCatalog catalog = catalogFactory.getCatalog(uiContext);
+      CatalogQueryIndex catalogIndex = catalogFactory.getCatalogIndex(uiContext);
       Map<Object, Object> attributeMap = uiContext.getAttributeMap();
       Mission mission = (Mission) attributeMap.get(Mission.class);
       Runtime runtime = (Runtime) attributeMap.get(Runtime.class);
@@ -209,11 +217,11 @@ public class ProjectInfoStep implements UIWizardStep
       Booster booster;
       if (runtimeVersion.getValue() != null)
       {
-         booster = catalog.getBooster(mission, runtime, runtimeVersion.getValue()).get();
+         booster = catalogIndex.getBooster(mission, runtime, runtimeVersion.getValue()).get();
       }
       else
       {
-         booster = catalog.getBooster(mission, runtime).get();
+         booster = catalogIndex.getBooster(mission, runtime, LabelSet.EMPTY).get();
       }
       DirectoryResource initialDir = (DirectoryResource) uiContext.getInitialSelection().get();
       String projectName = named.getValue();
@@ -228,7 +236,9 @@ public class ProjectInfoStep implements UIWizardStep
       projectDirectory.mkdirs();
       Path projectDirectoryPath = projectDirectory.getUnderlyingResourceObject().toPath();
       // Copy contents
-      catalog.copy(booster, projectDirectoryPath);
+      long copyStart = System.nanoTime();
+      boosterCopier.copy(catalog, booster, projectDirectoryPath);
+      COPY_TIMER.recordSince(copyStart);
       // Is it a maven project?
       MavenModelResource modelResource = projectDirectory.getChildOfType(MavenModelResource.class, "pom.xml");
 
@@ -309,7 +319,7 @@ public class ProjectInfoStep implements UIWizardStep
       // Create README.adoc file
       try
       {
-         String template = getReadmeTemplate(mission);
+         ReadmeTemplate template = getReadmeTemplate(mission);
          if (template != null)
          {
             Map<String, String> values = new HashMap<>();
@@ -332,8 +342,22 @@ public class ProjectInfoStep implements UIWizardStep
             values.put("version", version.getValue());
             values.put("targetRepository", Objects.toString(gitHubRepositoryName.getValue(), projectName));
             values.putAll(getRuntimeProperties(deploymentType, mission, runtime));
-            String readmeOutput = getReadmeProcessor().processTemplate(template, values);
-            projectDirectory.getChildOfType(FileResource.class, "README.adoc").setContents(readmeOutput);
+            // Rendered next to README.adoc and moved over it, so a failure leaves the original README.adoc as is. Not
+            // created with Files.createTempFile, which would leave README.adoc readable by its owner only
+            Path readme = projectDirectoryPath.resolve("README.adoc.tmp");
+            try
+            {
+               try (Writer writer = Files.newBufferedWriter(readme, StandardCharsets.UTF_8))
+               {
+                  getReadmeProcessor().processTemplate(template, values, writer);
+               }
+               Files.move(readme, projectDirectoryPath.resolve("README.adoc"), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally
+            {
+               Files.deleteIfExists(readme);
+            }
             // Delete README.md
             projectDirectory.getChildOfType(FileResource.class, "README.md").delete();
          }
@@ -374,10 +398,12 @@ public class ProjectInfoStep implements UIWizardStep
       return getReadmeProcessor().getRuntimeProperties(deploymentType, mission, runtime);
    }
 
-   protected String getReadmeTemplate(Mission mission) throws IOException
+   /**
+    * @return the parsed README template of the given mission, <code>null</code> if there is none
+    */
+   protected ReadmeTemplate getReadmeTemplate(Mission mission) throws IOException
    {
-      String template = getReadmeProcessor().getReadmeTemplate(mission);
-      return template;
+      return getReadmeProcessor().getTemplate(null, mission);
    }
 
    /**
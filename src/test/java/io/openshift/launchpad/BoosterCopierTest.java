@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+public class BoosterCopierTest
+{
+   @Rule
+   public TemporaryFolder folder = new TemporaryFolder();
+
+   private Path booster;
+
+   @Before
+   public void createBooster() throws IOException
+   {
+      booster = folder.newFolder("booster").toPath();
+      write(booster.resolve("pom.xml"), "<project/>");
+      write(booster.resolve("README.adoc"), "= ${mission}");
+      write(booster.resolve("src/main/java/App.java"), "class App {}");
+      write(booster.resolve("module/pom.xml"), "<project/>");
+      write(booster.resolve(".git/HEAD"), "ref: refs/heads/master");
+      Files.createDirectories(booster.resolve("src/test/java"));
+   }
+
+   @Test
+   public void testCopy() throws IOException
+   {
+      Path project = folder.newFolder("project").toPath();
+      BoosterCopier.copyTree(booster, project, false, 2, ForkJoinPool.commonPool());
+      assertThat(read(project.resolve("src/main/java/App.java"))).isEqualTo("class App {}");
+      assertThat(read(project.resolve("module/pom.xml"))).isEqualTo("<project/>");
+      assertThat(Files.isDirectory(project.resolve("src/test/java"))).isTrue();
+      assertThat(Files.exists(project.resolve(".git"))).isFalse();
+      assertThat(Files.isSameFile(project.resolve("src/main/java/App.java"),
+               booster.resolve("src/main/java/App.java"))).isFalse();
+   }
+
+   @Test
+   public void testLinkOnlyFilesThatAreNotRewritten() throws IOException
+   {
+      Path project = folder.newFolder("project").toPath();
+      BoosterCopier.copyTree(booster, project, true, 2, ForkJoinPool.commonPool());
+      assertThat(Files.isSameFile(project.resolve("src/main/java/App.java"),
+               booster.resolve("src/main/java/App.java"))).isTrue();
+      assertThat(Files.isSameFile(project.resolve("pom.xml"), booster.resolve("pom.xml"))).isFalse();
+      assertThat(Files.isSameFile(project.resolve("module/pom.xml"), booster.resolve("module/pom.xml"))).isFalse();
+      assertThat(Files.isSameFile(project.resolve("README.adoc"), booster.resolve("README.adoc"))).isFalse();
+      assertThat(read(project.resolve("README.adoc"))).isEqualTo("= ${mission}");
+   }
+
+   private static void write(Path file, String contents) throws IOException
+   {
+      Files.createDirectories(file.getParent());
+      Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+   }
+
+   private static String read(Path file) throws IOException
+   {
+      return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+   }
+}
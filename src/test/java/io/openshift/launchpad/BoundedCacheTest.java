@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+public class BoundedCacheTest
+{
+   @Test
+   public void testLeastRecentlyUsedIsEvicted() throws Exception
+   {
+      List<String> evicted = new ArrayList<>();
+      BoundedCache<String, String> cache = new BoundedCache<>(2, 0, key -> false, (k, v) -> evicted.add(k));
+      cache.putIfAbsent("a", "A");
+      Thread.sleep(5);
+      cache.putIfAbsent("b", "B");
+      Thread.sleep(5);
+      cache.get("a");
+      Thread.sleep(5);
+      cache.putIfAbsent("c", "C");
+      assertThat(evicted).containsExactly("b");
+      assertThat(cache.size()).isEqualTo(2);
+      assertThat(cache.getEvictionCount()).isEqualTo(1);
+   }
+
+   @Test
+   public void testIdleEntryIsEvictedWithoutInsert() throws Exception
+   {
+      List<String> evicted = new CopyOnWriteArrayList<>();
+      BoundedCache<String, String> cache = new BoundedCache<>(10, 10, key -> false, (k, v) -> evicted.add(k));
+      ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+      try
+      {
+         cache.evictPeriodically(scheduler, 5);
+         cache.putIfAbsent("a", "A");
+         for (int i = 0; i < 100 && evicted.isEmpty(); i++)
+         {
+            Thread.sleep(10);
+         }
+         assertThat(evicted).containsExactly("a");
+         assertThat(cache.getIfPresent("a")).isNull();
+      }
+      finally
+      {
+         scheduler.shutdownNow();
+      }
+   }
+
+   @Test
+   public void testPinnedEntriesAreNeverEvicted()
+   {
+      BoundedCache<String, String> cache = new BoundedCache<>(0, 0, "pinned"::equals, (k, v) -> {
+      });
+      cache.putIfAbsent("pinned", "P");
+      cache.putIfAbsent("other", "O");
+      assertThat(cache.getIfPresent("pinned")).isEqualTo("P");
+      assertThat(cache.getIfPresent("other")).isNull();
+   }
+
+   @Test
+   public void testHitsAndMisses()
+   {
+      BoundedCache<String, String> cache = new BoundedCache<>(10, 0, key -> false, (k, v) -> {
+      });
+      assertThat(cache.get("a")).isNull();
+      assertThat(cache.putIfAbsent("a", "A")).isNull();
+      assertThat(cache.putIfAbsent("a", "other")).isEqualTo("A");
+      assertThat(cache.get("a")).isEqualTo("A");
+      assertThat(cache.getMissCount()).isEqualTo(1);
+      assertThat(cache.getHitCount()).isEqualTo(2);
+   }
+
+   @Test
+   public void testInvalidateOnlyRemovesTheGivenValue()
+   {
+      BoundedCache<String, String> cache = new BoundedCache<>(10, 0, key -> false, (k, v) -> {
+      });
+      cache.putIfAbsent("a", "A");
+      assertThat(cache.invalidate("a", new String("B"))).isFalse();
+      assertThat(cache.invalidate("a", cache.getIfPresent("a"))).isTrue();
+      assertThat(cache.getIfPresent("a")).isNull();
+      assertThat(cache.getEvictionCount()).isZero();
+   }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+
+import javax.ws.rs.ProcessingException;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+public class CircuitBreakerTest
+{
+   private static final ProcessingException CONNECTION_FAILURE = new ProcessingException(
+            new ConnectException("Connection refused"));
+
+   @Test
+   public void testOpensAfterConsecutiveConnectionFailures()
+   {
+      CircuitBreaker breaker = new CircuitBreaker("test", 2, 60_000);
+      breaker.acquire();
+      breaker.onFailure(CONNECTION_FAILURE);
+      assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+      breaker.acquire();
+      breaker.onFailure(CONNECTION_FAILURE);
+      assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+      try
+      {
+         breaker.acquire();
+         fail("Should have been rejected");
+      }
+      catch (ProcessingException e)
+      {
+         assertThat(CircuitBreaker.isConnectionFailure(e)).isTrue();
+      }
+      assertThat(breaker.getRejectedCount()).isEqualTo(1);
+   }
+
+   @Test
+   public void testOtherFailuresDoNotOpen()
+   {
+      CircuitBreaker breaker = new CircuitBreaker("test", 1, 60_000);
+      breaker.acquire();
+      breaker.onFailure(new ProcessingException(new SocketTimeoutException("Read timed out")));
+      assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+   }
+
+   @Test
+   public void testHalfOpenProbe() throws Exception
+   {
+      CircuitBreaker breaker = new CircuitBreaker("test", 1, 10);
+      breaker.acquire();
+      breaker.onFailure(CONNECTION_FAILURE);
+      Thread.sleep(20);
+      breaker.acquire();
+      assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+      try
+      {
+         breaker.acquire();
+         fail("Only one probe should be allowed");
+      }
+      catch (ProcessingException expected)
+      {
+      }
+      breaker.onSuccess();
+      assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+      breaker.acquire();
+   }
+}
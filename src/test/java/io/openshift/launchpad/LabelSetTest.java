@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+public class LabelSetTest
+{
+   @Test
+   public void testParseIsCanonical()
+   {
+      LabelSet labels = LabelSet.parse(" beta,alpha,,beta ");
+      assertThat(labels.toArray()).containsExactly("alpha", "beta");
+      assertThat(labels).isEqualTo(LabelSet.parse("alpha,beta"));
+      assertThat(labels.toString()).isEqualTo("alpha,beta");
+   }
+
+   @Test
+   public void testSameFilterStringIsShared()
+   {
+      assertThat(LabelSet.parse("foo,bar")).isSameAs(LabelSet.parse("foo,bar"));
+      assertThat(LabelSet.parse(",")).isSameAs(LabelSet.EMPTY);
+      assertThat(LabelSet.parse(null)).isSameAs(LabelSet.EMPTY);
+   }
+
+   @Test
+   public void testMatches()
+   {
+      LabelSet labels = LabelSet.parse("foo,bar");
+      assertThat(labels.contains("foo")).isTrue();
+      assertThat(labels.contains("baz")).isFalse();
+      assertThat(labels.matches("bar", "baz", "foo")).isTrue();
+      assertThat(labels.matches("foo")).isFalse();
+      assertThat(LabelSet.EMPTY.matches()).isTrue();
+   }
+}
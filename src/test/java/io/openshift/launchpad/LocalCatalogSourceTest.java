@@ -0,0 +1,205 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+public class LocalCatalogSourceTest
+{
+   @Rule
+   public TemporaryFolder folder = new TemporaryFolder();
+
+   private final List<LocalCatalogSource> sources = new ArrayList<>();
+
+   @After
+   public void closeSources()
+   {
+      sources.forEach(LocalCatalogSource::close);
+   }
+
+   @Test
+   public void testPlainDirectoryIsServedForAnyRef() throws Exception
+   {
+      Path dir = folder.newFolder("catalog").toPath();
+      Files.createDirectories(dir.resolve("rest-http/vert.x"));
+      Files.write(dir.resolve("rest-http/vert.x/booster.yaml"), "name: test".getBytes(StandardCharsets.UTF_8));
+
+      LocalCatalogSource source = newSource(dir);
+      CatalogSnapshotStore.Snapshot next = source.resolve("next");
+      CatalogSnapshotStore.Snapshot oof = source.resolve("openshift-online-free");
+
+      assertThat(next.getCommitId()).isNotNull().isEqualTo(oof.getCommitId());
+      assertThat(Files.exists(dir.resolve(".git"))).isFalse();
+      assertThat(fileMode(next, "rest-http/vert.x/booster.yaml")).isEqualTo(FileMode.REGULAR_FILE);
+   }
+
+   @Test
+   public void testPlainDirectoryIsReadAgain() throws Exception
+   {
+      Path dir = folder.newFolder("catalog").toPath();
+      Files.write(dir.resolve("metadata.json"), "{}".getBytes(StandardCharsets.UTF_8));
+      LocalCatalogSource source = newSource(dir);
+      String first = source.resolve("next").getCommitId();
+
+      assertThat(source.resolve("next").getCommitId()).isEqualTo(first);
+
+      Files.write(dir.resolve("booster.yaml"), "name: test".getBytes(StandardCharsets.UTF_8));
+      CatalogSnapshotStore.Snapshot changed = source.resolve("next");
+
+      assertThat(changed.getCommitId()).isNotEqualTo(first);
+      assertThat(fileMode(changed, "booster.yaml")).isEqualTo(FileMode.REGULAR_FILE);
+   }
+
+   @Test
+   public void testCloseDeletesTemporaryDirectories() throws Exception
+   {
+      Path dir = folder.newFolder("catalog").toPath();
+      Files.write(dir.resolve("metadata.json"), "{}".getBytes(StandardCharsets.UTF_8));
+      LocalCatalogSource source = newSource(dir);
+      Path repository = Paths.get(new URI(source.resolve("next").getRepositoryUrl()));
+
+      source.close();
+
+      assertThat(Files.exists(repository)).isFalse();
+      assertThat(Files.exists(dir.resolve("metadata.json"))).isTrue();
+   }
+
+   @Test
+   public void testGitRepositoryIsServedAsIs() throws Exception
+   {
+      Path dir = folder.newFolder("repository").toPath();
+      Files.write(dir.resolve("metadata.json"), "{}".getBytes(StandardCharsets.UTF_8));
+      String commitId;
+      try (Git git = Git.init().setDirectory(dir.toFile()).call())
+      {
+         git.add().addFilepattern(".").call();
+         commitId = git.commit().setMessage("Initial").setAuthor("test", "test@localhost").call().getName();
+         git.branchCreate().setName("next").call();
+      }
+
+      CatalogSnapshotStore.Snapshot snapshot = newSource(dir).resolve("next");
+
+      assertThat(snapshot.getCommitId()).isEqualTo(commitId);
+      assertThat(snapshot.getRepositoryUrl()).isEqualTo(dir.toUri().toString());
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void testUnknownRefInGitRepository() throws Exception
+   {
+      Path dir = folder.newFolder("repository").toPath();
+      Files.write(dir.resolve("metadata.json"), "{}".getBytes(StandardCharsets.UTF_8));
+      try (Git git = Git.init().setDirectory(dir.toFile()).call())
+      {
+         git.add().addFilepattern(".").call();
+         git.commit().setMessage("Initial").setAuthor("test", "test@localhost").call();
+      }
+      newSource(dir).resolve("does-not-exist");
+   }
+
+   @Test
+   public void testZipArchive() throws Exception
+   {
+      Path archive = folder.getRoot().toPath().resolve("catalog.zip");
+      try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(archive)))
+      {
+         zos.putNextEntry(new ZipEntry("booster-catalog/"));
+         zos.putNextEntry(new ZipEntry("booster-catalog/metadata.json"));
+         zos.write("{}".getBytes(StandardCharsets.UTF_8));
+         zos.closeEntry();
+      }
+
+      CatalogSnapshotStore.Snapshot snapshot = newSource(archive).resolve("next");
+
+      assertThat(fileMode(snapshot, "metadata.json")).isEqualTo(FileMode.REGULAR_FILE);
+   }
+
+   @Test
+   public void testTarArchiveWithLongNamesAndModes() throws Exception
+   {
+      String longName = "booster-catalog/" + String.join("/", "a-directory-name-long-enough", "to-need-a-pax-header",
+               "in-a-ustar-archive", "because-it-is-over-100-characters", "booster.yaml");
+      Path archive = folder.getRoot().toPath().resolve("catalog.tar");
+      try (TarArchiveOutputStream tos = new TarArchiveOutputStream(Files.newOutputStream(archive)))
+      {
+         tos.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+         tos.putArchiveEntry(new TarArchiveEntry("booster-catalog/"));
+         tos.closeArchiveEntry();
+         writeTarEntry(tos, "booster-catalog/metadata.json", 0644, "{}");
+         writeTarEntry(tos, "booster-catalog/mvnw", 0755, "#!/bin/sh");
+         writeTarEntry(tos, longName, 0644, "name: test");
+      }
+
+      CatalogSnapshotStore.Snapshot snapshot = newSource(archive).resolve("next");
+
+      assertThat(fileMode(snapshot, "metadata.json")).isEqualTo(FileMode.REGULAR_FILE);
+      assertThat(fileMode(snapshot, "mvnw")).isEqualTo(FileMode.EXECUTABLE_FILE);
+      assertThat(fileMode(snapshot, longName.substring("booster-catalog/".length())))
+               .isEqualTo(FileMode.REGULAR_FILE);
+   }
+
+   private LocalCatalogSource newSource(Path path)
+   {
+      LocalCatalogSource source = new LocalCatalogSource(path);
+      sources.add(source);
+      return source;
+   }
+
+   /**
+    * @return the mode of the given file in the snapshot, <code>null</code> if it is missing
+    */
+   private static FileMode fileMode(CatalogSnapshotStore.Snapshot snapshot, String path) throws Exception
+   {
+      File repository = Paths.get(new URI(snapshot.getRepositoryUrl())).toFile();
+      try (Git git = Git.open(repository); RevWalk revWalk = new RevWalk(git.getRepository()))
+      {
+         TreeWalk treeWalk = TreeWalk.forPath(git.getRepository(), path,
+                  revWalk.parseCommit(ObjectId.fromString(snapshot.getCommitId())).getTree());
+         return treeWalk == null ? null : treeWalk.getFileMode(0);
+      }
+   }
+
+   private static void writeTarEntry(TarArchiveOutputStream tos, String name, int mode, String contents)
+            throws IOException
+   {
+      byte[] data = contents.getBytes(StandardCharsets.UTF_8);
+      TarArchiveEntry entry = new TarArchiveEntry(name);
+      entry.setMode(mode);
+      entry.setSize(data.length);
+      tos.putArchiveEntry(entry);
+      tos.write(data);
+      tos.closeArchiveEntry();
+   }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.core.Response;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Compares the per-call latency of a {@link MissionControl} validation using the shared, pooled client against
+ * creating a new client for each call (the previous behavior), using a local stub server.
+ * <p>
+ * Run with <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=io.openshift.launchpad.MissionControlBenchmark</code>
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MissionControlBenchmark
+{
+   private HttpServer server;
+   private MissionControl missionControl;
+   private URI tokenURI;
+
+   @Setup
+   public void startServer() throws IOException
+   {
+      server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+      server.createContext("/api/validate", exchange -> {
+         exchange.sendResponseHeaders(200, -1);
+         exchange.close();
+      });
+      server.setExecutor(Executors.newFixedThreadPool(4));
+      server.start();
+      int port = server.getAddress().getPort();
+      missionControl = new MissionControl("localhost", port);
+      tokenURI = URI.create("http://localhost:" + port + "/api/validate/token/github");
+   }
+
+   @TearDown
+   public void stopServer()
+   {
+      missionControl.close();
+      server.stop(0);
+   }
+
+   @Benchmark
+   public String pooledClient()
+   {
+      return missionControl.validateGitHubTokenExists("Bearer token");
+   }
+
+   @Benchmark
+   public int newClientPerCall()
+   {
+      Client client = ClientBuilder.newClient();
+      try
+      {
+         Response response = client.target(tokenURI).request().header("Authorization", "Bearer token").head();
+         int status = response.getStatus();
+         response.close();
+         return status;
+      }
+      finally
+      {
+         client.close();
+      }
+   }
+
+   public static void main(String[] args) throws RunnerException
+   {
+      new Runner(new OptionsBuilder().include(MissionControlBenchmark.class.getSimpleName()).build()).run();
+   }
+}
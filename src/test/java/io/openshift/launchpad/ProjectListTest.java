@@ -0,0 +1,63 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.json.JsonException;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+public class ProjectListTest
+{
+   private static final String PROJECTS = "[\"myapp-stage\", \"demo\", \"myapp-dev\", \"demo\", \"myapp-prod\"]";
+
+   @Test
+   public void testReadIsSortedWithoutDuplicates()
+   {
+      ProjectList projects = ProjectList.read(json(PROJECTS));
+      assertThat(projects).containsExactly("demo", "myapp-dev", "myapp-prod", "myapp-stage");
+      assertThat(projects.contains("myapp-prod")).isTrue();
+      assertThat(projects.contains("myapp")).isFalse();
+      assertThat(projects.withPrefix("myapp-", 2)).containsExactly("myapp-dev", "myapp-prod");
+      assertThat(projects.withPrefix("other", 2)).isEmpty();
+   }
+
+   @Test
+   public void testStreamingLookups()
+   {
+      assertThat(ProjectList.contains(json(PROJECTS), "myapp-dev")).isTrue();
+      assertThat(ProjectList.contains(json(PROJECTS), "other")).isFalse();
+      assertThat(ProjectList.withPrefix(json(PROJECTS), "myapp-", 2)).containsExactly("myapp-dev", "myapp-prod");
+   }
+
+   @Test
+   public void testEmptyList()
+   {
+      assertThat(ProjectList.read(json("[]"))).isEmpty();
+   }
+
+   @Test(expected = JsonException.class)
+   public void testRejectsNonArray()
+   {
+      ProjectList.read(json("{\"projects\":[]}"));
+   }
+
+   private static InputStream json(String json)
+   {
+      return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+   }
+}
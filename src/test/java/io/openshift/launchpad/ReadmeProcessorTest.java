@@ -10,11 +10,16 @@ package io.openshift.launchpad;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import io.openshift.booster.catalog.DeploymentType;
 import io.openshift.booster.catalog.Mission;
@@ -26,6 +31,8 @@ import io.openshift.booster.catalog.Runtime;
  */
 public class ReadmeProcessorTest
 {
+   @Rule
+   public TemporaryFolder folder = new TemporaryFolder();
 
    @BeforeClass
    public static void setUp()
@@ -44,6 +51,76 @@ public class ReadmeProcessorTest
       assertThat(readmeTemplate).contains("${mission} - ${runtime} Booster");
    }
 
+   @Test
+   public void testMissingReadmeResources() throws IOException
+   {
+      ReadmeProcessor processor = new ReadmeProcessor();
+      assertThat(processor.getReadmeTemplate(new Mission("missing"))).isNull();
+      assertThat(processor.getRuntimeProperties(DeploymentType.CD, new Mission("missing"), new Runtime("missing")))
+               .isEmpty();
+   }
+
+   @Test
+   public void testRuntimePropertiesAreCached()
+   {
+      ReadmeProcessor processor = new ReadmeProcessor();
+      processor.warmUp().join();
+      Map<String, String> properties = processor.getRuntimeProperties(DeploymentType.CD, new Mission("rest-http"),
+               new Runtime("spring-boot"));
+      assertThat(properties).isNotEmpty();
+      assertThat(processor.getRuntimeProperties(DeploymentType.CD, new Mission("rest-http"),
+               new Runtime("spring-boot"))).isSameAs(properties);
+   }
+
+   @Test
+   public void testReloadFromDirectory() throws IOException
+   {
+      Path directory = folder.getRoot().toPath();
+      Path template = directory.resolve("crud-README.adoc");
+      Files.write(template, "= ${mission} v1".getBytes(StandardCharsets.UTF_8));
+      System.setProperty("LAUNCHPAD_README_DIRECTORY", directory.toString());
+      try
+      {
+         ReadmeProcessor processor = new ReadmeProcessor();
+         assertThat(processor.getReadmeTemplate(new Mission("crud"))).isEqualTo("= ${mission} v1");
+         Files.write(template, "= ${mission} v2".getBytes(StandardCharsets.UTF_8));
+         // Still cached until reloaded
+         assertThat(processor.getReadmeTemplate(new Mission("crud"))).isEqualTo("= ${mission} v1");
+         processor.reload();
+         assertThat(processor.getReadmeTemplate(new Mission("crud"))).isEqualTo("= ${mission} v2");
+         assertThat(processor.getReadmeTemplate(new Mission("rest-http"))).isNull();
+      }
+      finally
+      {
+         System.clearProperty("LAUNCHPAD_README_DIRECTORY");
+      }
+   }
+
+   @Test
+   public void testFailedReloadKeepsPreviousContents() throws IOException
+   {
+      Path directory = folder.getRoot().toPath();
+      Path template = directory.resolve("crud-README.adoc");
+      Files.write(template, "= ${mission} v1".getBytes(StandardCharsets.UTF_8));
+      System.setProperty("LAUNCHPAD_README_DIRECTORY", directory.toString());
+      try
+      {
+         ReadmeProcessor processor = new ReadmeProcessor();
+         Files.write(template, "= ${mission} v2".getBytes(StandardCharsets.UTF_8));
+         Path properties = directory.resolve("cd-crud-vert.x.properties");
+         Files.write(properties, "key=\\uZZZZ".getBytes(StandardCharsets.UTF_8));
+         processor.reload();
+         assertThat(processor.getReadmeTemplate(new Mission("crud"))).isEqualTo("= ${mission} v1");
+         Files.write(properties, "key=value".getBytes(StandardCharsets.UTF_8));
+         processor.reload();
+         assertThat(processor.getReadmeTemplate(new Mission("crud"))).isEqualTo("= ${mission} v2");
+      }
+      finally
+      {
+         System.clearProperty("LAUNCHPAD_README_DIRECTORY");
+      }
+   }
+
    @Test
    public void testReadmeWithPropertiesReplacedCD() throws IOException
    {
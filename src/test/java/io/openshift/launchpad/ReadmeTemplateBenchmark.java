@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.text.StrSubstitutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.openshift.booster.catalog.DeploymentType;
+import io.openshift.booster.catalog.Mission;
+import io.openshift.booster.catalog.Runtime;
+
+/**
+ * Compares rendering a README with a {@link ReadmeTemplate} parsed once against a new {@link StrSubstitutor} for each
+ * project (the previous behavior).
+ * <p>
+ * Run with <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=io.openshift.launchpad.ReadmeTemplateBenchmark</code>
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadmeTemplateBenchmark
+{
+   private String text;
+   private ReadmeTemplate template;
+   private Map<String, String> values;
+
+   @Setup
+   public void loadTemplate() throws IOException
+   {
+      ReadmeProcessor processor = new ReadmeProcessor();
+      Mission mission = new Mission("rest-http");
+      template = processor.getTemplate(null, mission);
+      if (template == null)
+      {
+         throw new IllegalStateException("README templates not found, run add-template-files.sh first");
+      }
+      text = template.getText();
+      values = new HashMap<>();
+      values.put("missionId", mission.getId());
+      values.put("mission", "HTTP API");
+      values.put("runtimeId", "spring-boot");
+      values.put("runtime", "Spring Boot");
+      values.put("runtimeVersion", "");
+      values.put("openShiftProject", "my-project");
+      values.put("openShiftCluster", "starter-us-east-1");
+      values.put("groupId", "io.openshift.booster");
+      values.put("artifactId", "my-project");
+      values.put("version", "1.0.0-SNAPSHOT");
+      values.put("targetRepository", "my-project");
+      values.putAll(processor.getRuntimeProperties(DeploymentType.CD, mission, new Runtime("spring-boot")));
+   }
+
+   @Benchmark
+   public String precompiledTemplate()
+   {
+      return template.render(values);
+   }
+
+   @Benchmark
+   public String strSubstitutor()
+   {
+      StrSubstitutor strSubstitutor = new StrSubstitutor(values);
+      strSubstitutor.setEnableSubstitutionInVariables(true);
+      return strSubstitutor.replace(text);
+   }
+
+   public static void main(String[] args) throws RunnerException
+   {
+      new Runner(new OptionsBuilder().include(ReadmeTemplateBenchmark.class.getSimpleName()).build()).run();
+   }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.text.StrSubstitutor;
+import org.junit.Test;
+
+import io.openshift.booster.catalog.Mission;
+
+/**
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+public class ReadmeTemplateTest
+{
+   private static final String[] TEMPLATES = {
+            "= ${mission} - ${runtime} Booster",
+            "Run `${localRunCMD}` in ${artifactId}",
+            "${missing} and ${missing:-a default} and ${missing:-${runtime}}",
+            "Escaped $${mission} and $$${mission}",
+            "Nested ${runtime${suffix}} name",
+            "Unterminated ${mission",
+            "${}${:-empty}"
+   };
+
+   @Test
+   public void testRendersLikeStrSubstitutor()
+   {
+      Map<String, String> values = new HashMap<>();
+      values.put("mission", "rest-http");
+      values.put("runtime", "spring-boot");
+      values.put("runtimeId", "spring-boot-id");
+      values.put("suffix", "Id");
+      values.put("artifactId", "booster");
+      values.put("localRunCMD", "mvn spring-boot:run -DartifactId=${artifactId}");
+      for (String template : TEMPLATES)
+      {
+         StrSubstitutor strSubstitutor = new StrSubstitutor(values);
+         strSubstitutor.setEnableSubstitutionInVariables(true);
+         assertThat(ReadmeTemplate.compile(template).render(values)).isEqualTo(strSubstitutor.replace(template));
+      }
+   }
+
+   @Test
+   public void testRenderToWriter() throws IOException
+   {
+      Map<String, String> values = new HashMap<>();
+      values.put("mission", "rest-http");
+      values.put("runtime", "${missing:-spring-boot}");
+      ReadmeTemplate template = ReadmeTemplate.compile(TEMPLATES[0]);
+      StringWriter writer = new StringWriter();
+      template.render(values, writer);
+      assertThat(writer.toString()).isEqualTo(template.render(values)).isEqualTo("= rest-http - spring-boot Booster");
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void testCyclicValues()
+   {
+      Map<String, String> values = new HashMap<>();
+      values.put("a", "${b}");
+      values.put("b", "${a}");
+      ReadmeTemplate.compile("${a}").render(values);
+   }
+
+   @Test
+   public void testTemplatesAreCached() throws Exception
+   {
+      ReadmeProcessor processor = new ReadmeProcessor();
+      Mission mission = new Mission("crud");
+      assertThat(processor.getTemplate(null, mission)).isSameAs(processor.getTemplate(null, mission));
+   }
+}
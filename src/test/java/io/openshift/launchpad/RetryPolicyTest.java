@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.WebApplicationException;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+public class RetryPolicyTest
+{
+   @Test
+   public void testDelayIsBoundedAndJittered()
+   {
+      RetryPolicy policy = new RetryPolicy(10, 100, 1000);
+      for (int i = 0; i < 100; i++)
+      {
+         assertThat(policy.delayMillis(1)).isBetween(0L, 100L);
+         assertThat(policy.delayMillis(3)).isBetween(0L, 400L);
+         assertThat(policy.delayMillis(10)).isBetween(0L, 1000L);
+      }
+   }
+
+   @Test
+   public void testOnlyTransientFailuresAreRetried()
+   {
+      RetryPolicy policy = new RetryPolicy(3, 100, 1000);
+      ProcessingException connectionFailure = new ProcessingException(new ConnectException("Connection refused"));
+      assertThat(policy.shouldRetry(1, connectionFailure)).isTrue();
+      assertThat(policy.shouldRetry(2, new ProcessingException(new SocketTimeoutException()))).isTrue();
+      assertThat(policy.shouldRetry(1, new WebApplicationException("Unavailable", 503))).isTrue();
+      assertThat(policy.shouldRetry(1, new WebApplicationException("Unauthorized", 401))).isFalse();
+      assertThat(policy.shouldRetry(1, new IllegalStateException())).isFalse();
+      assertThat(policy.shouldRetry(3, connectionFailure)).isFalse();
+   }
+
+   @Test
+   public void testLatencyPercentile()
+   {
+      LatencyWindow window = new LatencyWindow(10, 5);
+      for (long i = 1; i <= 4; i++)
+      {
+         window.record(i);
+      }
+      assertThat(window.percentileNanos(0.95)).isEqualTo(-1L);
+      for (long i = 5; i <= 20; i++)
+      {
+         window.record(i);
+      }
+      // Only the latest 10 samples (11 to 20) are kept
+      assertThat(window.percentileNanos(0.95)).isEqualTo(20L);
+      assertThat(window.percentileNanos(0.5)).isEqualTo(15L);
+   }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+public class TtlCacheTest
+{
+   @Test
+   public void testValueIsCachedUntilExpired() throws Exception
+   {
+      TtlCache<String, Integer> cache = new TtlCache<>(50, 10);
+      AtomicInteger loads = new AtomicInteger();
+      assertThat(cache.get("a", loads::incrementAndGet, v -> true)).isEqualTo(1);
+      assertThat(cache.get("a", loads::incrementAndGet, v -> true)).isEqualTo(1);
+      Thread.sleep(100);
+      assertThat(cache.get("a", loads::incrementAndGet, v -> true)).isEqualTo(2);
+   }
+
+   @Test
+   public void testUncacheableValueIsNotKept()
+   {
+      TtlCache<String, Integer> cache = new TtlCache<>(60_000, 10);
+      AtomicInteger loads = new AtomicInteger();
+      cache.get("a", loads::incrementAndGet, v -> false);
+      cache.get("a", loads::incrementAndGet, v -> false);
+      assertThat(loads.get()).isEqualTo(2);
+      assertThat(cache.size()).isZero();
+   }
+
+   @Test
+   public void testConcurrentCallersShareOneLoad() throws Exception
+   {
+      TtlCache<String, Integer> cache = new TtlCache<>(60_000, 10);
+      AtomicInteger loads = new AtomicInteger();
+      CountDownLatch release = new CountDownLatch(1);
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try
+      {
+         Future<Integer> first = executor.submit(() -> cache.get("a", () -> {
+            try
+            {
+               release.await();
+            }
+            catch (InterruptedException e)
+            {
+               Thread.currentThread().interrupt();
+            }
+            return loads.incrementAndGet();
+         }, v -> true));
+         Thread.sleep(50);
+         Future<Integer> second = executor.submit(() -> cache.get("a", loads::incrementAndGet, v -> true));
+         release.countDown();
+         assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+         assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+         assertThat(loads.get()).isEqualTo(1);
+      }
+      finally
+      {
+         executor.shutdownNow();
+      }
+   }
+
+   @Test
+   public void testSizeIsBounded()
+   {
+      TtlCache<Integer, Integer> cache = new TtlCache<>(60_000, 2);
+      for (int i = 0; i < 5; i++)
+      {
+         final int value = i;
+         cache.get(i, () -> value, v -> true);
+      }
+      assertThat(cache.size()).isEqualTo(2);
+   }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+public class JmxMetricsRegistryTest
+{
+   private final MBeanServer server = MBeanServerFactory.newMBeanServer();
+   private final JmxMetricsRegistry registry = new JmxMetricsRegistry(server);
+
+   @Test
+   public void testTimerIsPublished() throws Exception
+   {
+      Timer timer = registry.timer("test.timer", "endpoint", "a/b");
+      assertThat(registry.timer("test.timer", "endpoint", "a/b")).isSameAs(timer);
+      for (int i = 1; i <= 100; i++)
+      {
+         timer.record(i, TimeUnit.MILLISECONDS);
+      }
+      ObjectName name = JmxMetricsRegistry.objectName("Timer", "test.timer", "endpoint", "a/b");
+      assertThat(server.getAttribute(name, "Count")).isEqualTo(100L);
+      assertThat((Double) server.getAttribute(name, "MaxMillis")).isEqualTo(100.0);
+      assertThat((Double) server.getAttribute(name, "50thPercentileMillis")).isBetween(50.0, 100.0);
+      assertThat((Double) server.getAttribute(name, "99thPercentileMillis")).isEqualTo(100.0);
+   }
+
+   @Test
+   public void testGaugeIsReplaced() throws Exception
+   {
+      registry.gauge("test.gauge", () -> 1);
+      registry.gauge("test.gauge", () -> 2);
+      ObjectName name = JmxMetricsRegistry.objectName("Gauge", "test.gauge");
+      assertThat(server.getAttribute(name, "Value")).isEqualTo(2.0);
+   }
+
+   @Test
+   public void testRemove() throws Exception
+   {
+      Timer timer = registry.timer("test.removed", "catalog", "a");
+      registry.gauge("test.removed", () -> 1, "catalog", "a");
+      registry.remove("test.removed", "catalog", "a");
+      assertThat(server.isRegistered(JmxMetricsRegistry.objectName("Timer", "test.removed", "catalog", "a"))).isFalse();
+      assertThat(server.isRegistered(JmxMetricsRegistry.objectName("Gauge", "test.removed", "catalog", "a"))).isFalse();
+      assertThat(registry.timer("test.removed", "catalog", "a")).isNotSameAs(timer);
+   }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.openshift.launchpad.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
+ */
+public class MetricsTest
+{
+   private final MetricsRegistry original = Metrics.getRegistry();
+
+   @After
+   public void restoreRegistry()
+   {
+      Metrics.setRegistry(original);
+   }
+
+   @Test
+   public void testTimerFollowsRegistry() throws Exception
+   {
+      Timer timer = Metrics.timer("test.timer");
+      MBeanServer first = MBeanServerFactory.newMBeanServer();
+      MBeanServer second = MBeanServerFactory.newMBeanServer();
+      ObjectName name = JmxMetricsRegistry.objectName("Timer", "test.timer");
+
+      Metrics.setRegistry(new JmxMetricsRegistry(first));
+      timer.record(1, TimeUnit.MILLISECONDS);
+      Metrics.setRegistry(new JmxMetricsRegistry(second));
+      timer.record(1, TimeUnit.MILLISECONDS);
+      timer.record(1, TimeUnit.MILLISECONDS);
+
+      assertThat(first.getAttribute(name, "Count")).isEqualTo(1L);
+      assertThat(second.getAttribute(name, "Count")).isEqualTo(2L);
+   }
+}